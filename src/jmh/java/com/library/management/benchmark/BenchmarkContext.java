@@ -0,0 +1,20 @@
+package com.library.management.benchmark;
+
+import com.library.management.LibraryManagementApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+//boots the application on the embedded test database, one fresh database per trial
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,57 @@
+package com.library.management.benchmark;
+
+import com.library.management.dto.BookDto;
+import com.library.management.entities.Book;
+import com.library.management.model.CursorPage;
+import com.library.management.repository.BookRepository;
+import com.library.management.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookServiceBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        List<Book> books = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            Book book = new Book();
+            book.setTitle("Title " + i);
+            book.setAuthor("Author " + i % 100);
+            books.add(book);
+        }
+        context.getBean(BookRepository.class).saveAll(books);
+        bookService = context.getBean(BookService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDto> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    @Benchmark
+    public CursorPage<BookDto> getFirstPage() {
+        return bookService.getBooks(null, 50, "title");
+    }
+}
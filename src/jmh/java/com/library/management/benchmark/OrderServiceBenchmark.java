@@ -0,0 +1,54 @@
+package com.library.management.benchmark;
+
+import com.library.management.entities.Book;
+import com.library.management.entities.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import com.library.management.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+//one operation is a full loan: issue the book, then return it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderServiceBenchmark {
+
+    @Param({"sync", "group-commit"})
+    String ledgerMode;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private int userId;
+    private int bookId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("library.ledger.mode=" + ledgerMode);
+        User user = new User();
+        user.setUsername("reader");
+        user.setPassword("secret");
+        user.setRole("USER");
+        userId = context.getBean(UserRepository.class).save(user).getId();
+        Book book = new Book();
+        book.setTitle("Benchmark");
+        bookId = context.getBean(BookRepository.class).save(book).getId();
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void issueAndReturn() {
+        orderService.issueBook(userId, bookId);
+        orderService.returnBook(userId);
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.management.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BookDto;
+import com.library.management.dto.GetUserDto;
+import com.library.management.entities.Book;
+import com.library.management.entities.BookStock;
+import com.library.management.entities.User;
+import com.library.management.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//entity to DTO conversion and the JSON writing the list endpoints do, without a database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+    @Param({"50", "500", "5000"})
+    int listSize;
+
+    private final BookService bookService = new BookService();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<Book> books;
+    private List<BookDto> bookDtos;
+    private List<GetUserDto> userDtos;
+
+    @Setup
+    public void setUp() {
+        books = new ArrayList<>(listSize);
+        userDtos = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            User user = new User();
+            user.setId(i);
+            user.setUsername("reader" + i);
+            Book book = new Book();
+            book.setId(i);
+            book.setTitle("Title " + i);
+            book.setAuthor("Author " + i);
+            //every other book is out on loan
+            book.getStock().add(new BookStock(book, 0, i % 2 == 0 ? 0 : 1));
+            books.add(book);
+            userDtos.add(new GetUserDto(i, user.getUsername(), "USER", i % 2 == 0 ? book.getTitle() : null));
+        }
+        bookDtos = convertBooks();
+    }
+
+    @Benchmark
+    public List<BookDto> convertBooks() {
+        List<BookDto> dtos = new ArrayList<>(books.size());
+        for (Book book : books) {
+            dtos.add(bookService.convertToBookDto(book));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public byte[] serializeBooks() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookDtos);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userDtos);
+    }
+}
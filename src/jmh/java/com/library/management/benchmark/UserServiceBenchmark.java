@@ -0,0 +1,42 @@
+package com.library.management.benchmark;
+
+import com.library.management.dto.GetUserDto;
+import com.library.management.dto.PostUserDto;
+import com.library.management.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+//dominated by BCrypt, so the cost is a parameter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserServiceBenchmark {
+
+    @Param({"10", "12"})
+    int strength;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("library.security.bcrypt.strength=" + strength);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public GetUserDto addUser() {
+        return userService.addUser(new PostUserDto("patron" + next++, "secret"));
+    }
+}
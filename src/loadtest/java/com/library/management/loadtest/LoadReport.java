@@ -0,0 +1,84 @@
+package com.library.management.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//prints the percentile table and keeps the same numbers as JSON for comparing runs
+class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+
+    static Map<String, Object> summarize(Scenario scenario, Map<String, OperationStats> stats) {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        Histogram all = new Histogram(3);
+        long ok = 0, clientErrors = 0, serverErrors = 0, dropped = 0;
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            operations.put(entry.getKey(), row(operation.latencyMicros, operation.ok.sum(),
+                    operation.clientErrors.sum(), operation.serverErrors.sum(), operation.dropped.sum(),
+                    scenario.getDurationSeconds()));
+            all.add(operation.latencyMicros);
+            ok += operation.ok.sum();
+            clientErrors += operation.clientErrors.sum();
+            serverErrors += operation.serverErrors.sum();
+            dropped += operation.dropped.sum();
+        }
+        operations.put("all", row(all, ok, clientErrors, serverErrors, dropped, scenario.getDurationSeconds()));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", scenario.getName());
+        report.put("finishedAt", Instant.now().toString());
+        report.put("ratePerSecond", scenario.getRatePerSecond());
+        report.put("durationSeconds", scenario.getDurationSeconds());
+        report.put("books", scenario.getBooks());
+        report.put("users", scenario.getUsers());
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static Map<String, Object> row(Histogram latencyMicros, long ok, long clientErrors, long serverErrors,
+                                           long dropped, int durationSeconds) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        long completed = latencyMicros.getTotalCount();
+        row.put("completed", completed);
+        row.put("throughputPerSecond", completed / (double) durationSeconds);
+        row.put("ok", ok);
+        row.put("clientErrors", clientErrors);
+        row.put("serverErrors", serverErrors);
+        row.put("dropped", dropped);
+        for (double percentile : PERCENTILES) {
+            row.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)) + "Millis",
+                    latencyMicros.getValueAtPercentile(percentile) / 1000.0);
+        }
+        row.put("maxMillis", latencyMicros.getMaxValue() / 1000.0);
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    static void print(Map<String, Object> report) {
+        System.out.printf("%nScenario %s at %s req/s for %s s%n", report.get("scenario"), report.get("ratePerSecond"),
+                report.get("durationSeconds"));
+        System.out.printf("%-8s %9s %9s %7s %7s %7s %9s %9s %9s %9s %9s%n", "op", "done", "req/s", "4xx", "5xx",
+                "dropped", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        ((Map<String, Map<String, Object>>) report.get("operations")).forEach((name, row) ->
+                System.out.printf("%-8s %9d %9.1f %7d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                        row.get("completed"), row.get("throughputPerSecond"), row.get("clientErrors"),
+                        row.get("serverErrors"), row.get("dropped"), row.get("p50Millis"), row.get("p95Millis"),
+                        row.get("p99Millis"), row.get("p99.9Millis"), row.get("maxMillis")));
+    }
+
+    static Path write(Map<String, Object> report, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(report.get("scenario") + "-"
+                + report.get("finishedAt").toString().replace(':', '-') + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+}
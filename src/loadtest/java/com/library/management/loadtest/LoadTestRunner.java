@@ -0,0 +1,75 @@
+package com.library.management.loadtest;
+
+import com.library.management.LibraryManagementApplication;
+import com.library.management.entities.Book;
+import com.library.management.entities.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import com.library.management.service.BookSearchIndex;
+import com.library.management.service.PasswordHashingService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the application on the embedded test database, seeds it and runs one scenario against it.
+ * Arguments: scenario name or file, then the report directory.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = Scenario.load(args.length > 0 ? args[0] : "mixed");
+        Path output = Path.of(args.length > 1 ? args[1] : "target/loadtest");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<Integer> bookIds = seedBooks(context, scenario.getBooks());
+            List<String> usernames = seedUsers(context, scenario.getUsers());
+            Workload workload = new Workload(baseUrl, scenario, bookIds, usernames);
+            workload.openSessions();
+
+            System.out.printf("Warming up %s for %d s%n", scenario.getName(), scenario.getWarmupSeconds());
+            workload.run(Duration.ofSeconds(scenario.getWarmupSeconds()));
+            System.out.printf("Measuring %s for %d s%n", scenario.getName(), scenario.getDurationSeconds());
+            Map<String, OperationStats> stats = workload.run(Duration.ofSeconds(scenario.getDurationSeconds()));
+
+            Map<String, Object> report = LoadReport.summarize(scenario, stats);
+            LoadReport.print(report);
+            System.out.println("Report written to " + LoadReport.write(report, output));
+        }
+    }
+
+    private static List<Integer> seedBooks(ConfigurableApplicationContext context, int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Book book = new Book();
+            book.setTitle("Load Book " + i);
+            book.setAuthor("Author " + i % 500);
+            books.add(book);
+        }
+        List<Integer> ids = context.getBean(BookRepository.class).saveAll(books).stream().map(Book::getId).toList();
+        context.getBean(BookSearchIndex.class).rebuild();
+        return ids;
+    }
+
+    //every user shares one precomputed hash, seeding should not cost a BCrypt round per user
+    private static List<String> seedUsers(ConfigurableApplicationContext context, int count) {
+        String hash = context.getBean(PasswordHashingService.class).encode(Workload.PASSWORD);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUsername("load" + i);
+            user.setPassword(hash);
+            user.setRole("USER");
+            users.add(user);
+        }
+        return context.getBean(UserRepository.class).saveAll(users).stream().map(User::getUsername).toList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.library.management.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One load test run as read from a scenario file. Requests arrive at a fixed rate whatever the
+ * response times (open model), and each arrival picks an operation by weight from the mix:
+ * browse, search, login or loan.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+public class Scenario {
+
+    private String name;
+    private int books = 1000;
+    private int users = 100;
+    //users logged in before the run, a loan borrows one of these sessions
+    private int sessions = 20;
+    private int warmupSeconds = 5;
+    private int durationSeconds = 30;
+    private int ratePerSecond = 100;
+    //arrivals beyond this many open requests are counted as dropped instead of sent
+    private int maxInFlight = 500;
+    private Map<String, Integer> mix = new LinkedHashMap<>();
+
+    //a bare name is looked up under scenarios/ on the classpath, anything else is a file path
+    public static Scenario load(String nameOrPath) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        Path path = Path.of(nameOrPath);
+        if (Files.isRegularFile(path)) {
+            return objectMapper.readValue(path.toFile(), Scenario.class);
+        }
+        try (InputStream in = Scenario.class.getResourceAsStream("/scenarios/" + nameOrPath + ".json")) {
+            if (in == null) {
+                throw new IllegalArgumentException("No scenario named '" + nameOrPath + "'");
+            }
+            return objectMapper.readValue(in, Scenario.class);
+        }
+    }
+}
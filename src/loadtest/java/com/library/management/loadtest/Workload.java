@@ -0,0 +1,180 @@
+package com.library.management.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the scenario's requests against a running instance. A single dispatcher thread releases
+ * arrivals on schedule and never waits for responses; sessions come from form login at /dologin
+ * and are carried as the JSESSIONID cookie.
+ */
+class Workload {
+
+    static final String PASSWORD = "loadtest";
+    private static final String[] SEARCH_TERMS = {"load", "book 12", "autor", "titl 7", "bok"};
+
+    private final String baseUrl;
+    private final Scenario scenario;
+    private final List<Integer> bookIds;
+    private final List<String> usernames;
+    private final HttpClient client;
+    private final Queue<String> idleSessions = new ConcurrentLinkedQueue<>();
+    private final String[] weightedOperations;
+
+    Workload(String baseUrl, Scenario scenario, List<Integer> bookIds, List<String> usernames) {
+        this.baseUrl = baseUrl;
+        this.scenario = scenario;
+        this.bookIds = bookIds;
+        this.usernames = usernames;
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<String> weighted = new ArrayList<>();
+        scenario.getMix().forEach((operation, weight) -> {
+            if (!List.of("browse", "search", "login", "loan").contains(operation)) {
+                throw new IllegalArgumentException("Unknown operation '" + operation + "' in mix");
+            }
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("Scenario mix is empty");
+        }
+        this.weightedOperations = weighted.toArray(String[]::new);
+    }
+
+    void openSessions() {
+        for (int i = 0; i < scenario.getSessions() && i < usernames.size(); i++) {
+            String cookie = login(usernames.get(i)).join().headers()
+                    .firstValue("Set-Cookie").map(value -> value.split(";")[0]).orElse(null);
+            if (cookie == null) {
+                throw new IllegalStateException("Login as " + usernames.get(i) + " did not return a session");
+            }
+            idleSessions.add(cookie);
+        }
+    }
+
+    //runs the arrival schedule for the duration and waits for the stragglers
+    Map<String, OperationStats> run(Duration duration) throws InterruptedException {
+        Map<String, OperationStats> stats = new TreeMap<>();
+        for (String operation : scenario.getMix().keySet()) {
+            stats.put(operation, new OperationStats());
+        }
+        Semaphore inFlight = new Semaphore(scenario.getMaxInFlight());
+        long interval = TimeUnit.SECONDS.toNanos(1) / scenario.getRatePerSecond();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+            OperationStats operationStats = stats.get(operation);
+            if (!inFlight.tryAcquire()) {
+                operationStats.dropped.increment();
+                continue;
+            }
+            CompletableFuture<Integer> response;
+            try {
+                response = send(operation);
+            } catch (RuntimeException ex) {
+                response = CompletableFuture.failedFuture(ex);
+            }
+            if (response == null) {
+                //no idle session for a loan
+                operationStats.dropped.increment();
+                inFlight.release();
+                continue;
+            }
+            response.whenComplete((status, ex) -> {
+                operationStats.record(intended, ex == null ? status : -1);
+                inFlight.release();
+            });
+        }
+        if (!inFlight.tryAcquire(scenario.getMaxInFlight(), 60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Requests still open a minute after the run ended");
+        }
+        return stats;
+    }
+
+    private CompletableFuture<Integer> send(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case "browse":
+                return get("/public/book?size=50&sort=title", null).thenApply(HttpResponse::statusCode);
+            case "search":
+                String term = SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+                return get("/public/book/search?q=" + URLEncoder.encode(term, StandardCharsets.UTF_8), null)
+                        .thenApply(HttpResponse::statusCode);
+            case "login":
+                //a successful login redirects to the home page, a failed one back to the login page
+                return login(usernames.get(random.nextInt(usernames.size()))).thenApply(response ->
+                        response.headers().firstValue("Location").orElse("").contains("error")
+                                ? 401 : response.statusCode() == 302 ? 200 : response.statusCode());
+            default:
+                return loan(bookIds.get(random.nextInt(bookIds.size())));
+        }
+    }
+
+    //issues a book and returns it on the same session, a book already out on loan answers 400
+    private CompletableFuture<Integer> loan(int bookId) {
+        String session = idleSessions.poll();
+        if (session == null) {
+            return null;
+        }
+        return post("/public/order/" + bookId, session, null)
+                .thenCompose(issued -> issued.statusCode() != 201
+                        ? CompletableFuture.completedFuture(issued.statusCode())
+                        : post("/public/order/", session, null).thenApply(HttpResponse::statusCode))
+                .whenComplete((status, ex) -> idleSessions.add(session));
+    }
+
+    private CompletableFuture<HttpResponse<Void>> login(String username) {
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8);
+        return post("/dologin", null, form);
+    }
+
+    private CompletableFuture<HttpResponse<Void>> get(String path, String session) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30)).GET();
+        if (session != null) {
+            request.header("Cookie", session);
+        }
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private CompletableFuture<HttpResponse<Void>> post(String path, String session, String form) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (form != null) {
+            request.header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form));
+        } else {
+            request.POST(HttpRequest.BodyPublishers.noBody());
+        }
+        if (session != null) {
+            request.header("Cookie", session);
+        }
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+}
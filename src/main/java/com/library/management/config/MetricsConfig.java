@@ -0,0 +1,98 @@
+package com.library.management.config;
+
+import com.library.management.service.BookEvents;
+import com.library.management.service.LoanLedger;
+import com.library.management.service.PasswordHashingService;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service timers come from @Timed through the aspect below. Hibernate, HikariCP, Caffeine and
+ * HTTP metrics are bound by actuator, this adds the pools and queues the application owns.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordHashingService passwordHashingService) {
+        return registry -> {
+            Gauge.builder("library.hashing.queue.depth", passwordHashingService,
+                            PasswordHashingService::getQueueDepth)
+                    .description("Password hashing tasks waiting for a pool thread")
+                    .register(registry);
+            FunctionCounter.builder("library.hashing.rejected", passwordHashingService,
+                            service -> service.getStats().getRejected())
+                    .description("Password hashing tasks turned away with 503 because the queue was full")
+                    .register(registry);
+            FunctionTimer.builder("library.hashing.wait", passwordHashingService,
+                            PasswordHashingService::getCompleted, PasswordHashingService::getWaitNanos,
+                            TimeUnit.NANOSECONDS)
+                    .description("Time passwords spent queued for a hashing thread")
+                    .register(registry);
+            FunctionTimer.builder("library.hashing.compute", passwordHashingService,
+                            PasswordHashingService::getCompleted, PasswordHashingService::getComputeNanos,
+                            TimeUnit.NANOSECONDS)
+                    .description("Time spent hashing or checking passwords")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder loanLedgerMetrics(LoanLedger loanLedger) {
+        return registry -> {
+            Gauge.builder("library.ledger.queue.depth", loanLedger, ledger -> ledger.getStats().getQueueDepth())
+                    .description("Loan events waiting for the group-commit writer")
+                    .register(registry);
+            FunctionCounter.builder("library.ledger.written", loanLedger, ledger -> ledger.getStats().getWritten())
+                    .description("Loan events written to the orders table")
+                    .register(registry);
+            FunctionCounter.builder("library.ledger.fallbacks", loanLedger,
+                            ledger -> ledger.getStats().getFallbacks())
+                    .description("Loan events written on the request thread because the queue was full")
+                    .register(registry);
+            FunctionCounter.builder("library.ledger.failed", loanLedger, ledger -> ledger.getStats().getFailed())
+                    .description("Loan events lost because their batch could not be written")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder bookEventsMetrics(BookEvents bookEvents) {
+        return registry -> {
+            Gauge.builder("library.events.subscribers", bookEvents, BookEvents::getSubscriberCount)
+                    .description("Clients connected to the availability event stream")
+                    .register(registry);
+            FunctionCounter.builder("library.events.evicted", bookEvents, BookEvents::getEvicted)
+                    .description("Availability subscribers disconnected because their buffer overflowed or a write stalled")
+                    .register(registry);
+            Gauge.builder("library.events.senders", bookEvents, BookEvents::getSenderThreads)
+                    .description("Sender threads, including replacements for stalled writes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder rateLimitMetrics(RateLimiter rateLimiter) {
+        return registry -> {
+            Gauge.builder("library.ratelimit.keys", rateLimiter, RateLimiter::getKeyCount)
+                    .description("Clients with a rate limit bucket in memory")
+                    .register(registry);
+            FunctionCounter.builder("library.ratelimit.rejected", rateLimiter, RateLimiter::getRejected)
+                    .description("Requests turned away with 429 because the client's bucket was empty")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.library.management.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per client for the endpoints in library.rate-limit.rules. A bucket refills one
+ * token every period / capacity and holds at most capacity tokens. It is kept as the single time
+ * at which it will be full again, so taking a token is one compare-and-set. A bucket left alone for
+ * a whole period is full, so evicting it after that loses nothing; each rule keeps at most
+ * library.rate-limit.max-keys clients.
+ */
+@Component
+public class RateLimiter {
+
+    private static final String RULE_FORMAT = "[METHOD] /path=capacity/period";
+
+    public static final class Rule {
+        private final String spec;
+        private final AntPathRequestMatcher matcher;
+        private final long intervalNanos;
+        //how far the full time may run ahead of now with a token still left
+        private final long toleranceNanos;
+        private final Cache<String, AtomicLong> buckets;
+
+        private Rule(String spec, AntPathRequestMatcher matcher, int capacity, Duration period, long maxKeys) {
+            this.spec = spec;
+            this.matcher = matcher;
+            this.intervalNanos = period.toNanos() / capacity;
+            this.toleranceNanos = period.toNanos() - intervalNanos;
+            this.buckets = Caffeine.newBuilder().expireAfterAccess(period).maximumSize(maxKeys).build();
+        }
+
+        public String getSpec() {
+            return spec;
+        }
+    }
+
+    //METHOD /path=capacity/period, the first matching rule applies
+    @Value("${library.rate-limit.rules:}")
+    private List<String> ruleSpecs;
+
+    @Value("${library.rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final LongAdder rejected = new LongAdder();
+    LongSupplier nanoClock = System::nanoTime;
+
+    @PostConstruct
+    public void init() {
+        for (String spec : ruleSpecs) {
+            rules.add(parse(spec.trim()));
+        }
+    }
+
+    //null when no rule covers the request
+    public Rule ruleFor(HttpServletRequest request) {
+        for (Rule rule : rules) {
+            if (rule.matcher.matches(request)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    //zero when the key had a token left, otherwise how long until it has one
+    public Duration acquire(Rule rule, String key) {
+        long now = nanoClock.getAsLong();
+        //a new client starts with a full bucket
+        AtomicLong fullAt = rule.buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long wait = current - now - rule.toleranceNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return Duration.ofNanos(wait);
+            }
+            if (fullAt.compareAndSet(current, Math.max(current, now) + rule.intervalNanos)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getKeyCount() {
+        return rules.stream().mapToLong(rule -> rule.buckets.estimatedSize()).sum();
+    }
+
+    private Rule parse(String spec) {
+        int equals = spec.lastIndexOf('=');
+        int slash = spec.indexOf('/', equals);
+        if (equals < 1 || slash < 0) {
+            throw new IllegalArgumentException("Rate limit rule should look like " + RULE_FORMAT + ": " + spec);
+        }
+        String target = spec.substring(0, equals).trim();
+        int space = target.indexOf(' ');
+        HttpMethod method = space < 0 ? null : HttpMethod.valueOf(target.substring(0, space));
+        String pattern = space < 0 ? target : target.substring(space + 1).trim();
+        int capacity;
+        Duration period;
+        try {
+            capacity = Integer.parseInt(spec.substring(equals + 1, slash).trim());
+            period = Duration.parse(spec.substring(slash + 1).trim());
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Rate limit rule should look like " + RULE_FORMAT + ": " + spec);
+        }
+        if (capacity < 1 || period.isNegative() || period.toNanos() < capacity) {
+            throw new IllegalArgumentException("Rate limit rule needs a positive capacity and period: " + spec);
+        }
+        return new Rule(spec, new AntPathRequestMatcher(pattern, method == null ? null : method.name()),
+                capacity, period, maxKeys);
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.management.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Remembers who sent a write and pins their reads to the primary until the replicas have caught up,
+ * so a user always sees their own changes. Runs after the security filters to know the user.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReplicaRouting replicaRouting;
+
+    public ReadYourWritesFilter(ReplicaRouting replicaRouting) {
+        this.replicaRouting = replicaRouting;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String username = request.getRemoteUser();
+        if (username == null) {
+            filterChain.doFilter(request, response);
+        } else if (!READS.contains(request.getMethod())) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                //the lag window starts once the write has committed
+                replicaRouting.wrote(username);
+            }
+        } else if (replicaRouting.wroteRecently(username)) {
+            ReplicaRouting.pinToPrimary();
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                ReplicaRouting.unpin();
+            }
+        } else {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.library.management.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Decides which reads may go to a replica. A @ReplicaRead method marks its thread while it runs and
+ * ReplicaRoutingDataSource hands out replica connections to marked threads only. Replicas lag behind
+ * the primary, so users who wrote within the last replica-max-lag keep reading the primary.
+ */
+@Aspect
+@Component
+public class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> READING_REPLICA = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    @Value("${library.datasource.replica-urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${library.datasource.replica-max-lag:PT2S}")
+    private Duration maxLag;
+
+    //users who wrote recently, entries expire once the replicas have caught up
+    private Cache<String, Boolean> recentWriters;
+
+    @PostConstruct
+    public void init() {
+        recentWriters = Caffeine.newBuilder().expireAfterWrite(maxLag).maximumSize(100_000).build();
+    }
+
+    @Around("@annotation(com.library.management.config.ReplicaRead)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        //a read inside a transaction has to see the transaction's own writes
+        if (!isEnabled() || isReadingReplica() || PINNED_TO_PRIMARY.get() != null
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        READING_REPLICA.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            READING_REPLICA.remove();
+        }
+    }
+
+    public static boolean isReadingReplica() {
+        return READING_REPLICA.get() != null;
+    }
+
+    //the current request reads the primary only, until unpinned
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    public void wrote(String username) {
+        recentWriters.put(username, Boolean.TRUE);
+    }
+
+    public boolean wroteRecently(String username) {
+        return recentWriters.getIfPresent(username) != null;
+    }
+
+    public boolean isEnabled() {
+        return !replicaUrls.isEmpty();
+    }
+
+    public List<String> getReplicaUrls() {
+        return replicaUrls;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+}
@@ -0,0 +1,76 @@
+package com.library.management.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single spring.datasource pool with a primary pool plus one pool per replica when
+ * library.datasource.replica-urls is set. Replicas use the primary's driver and credentials unless
+ * library.datasource.replica-username and replica-password say otherwise. Every pool takes the
+ * spring.datasource.hikari settings and reports hikaricp.* metrics under its own pool name.
+ */
+@Configuration
+@ConditionalOnProperty("library.datasource.replica-urls")
+public class ReplicaRoutingConfig {
+
+    //the same settings the single auto-configured pool would have bound
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig poolSettings() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, ReplicaRouting replicaRouting, HikariConfig poolSettings,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${library.datasource.replica-username:${spring.datasource.username:}}") String username,
+                                 @Value("${library.datasource.replica-password:${spring.datasource.password:}}") String password) {
+        //Boot binds pool metrics only to a DataSource bean that is itself a pool, so these register their own
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        HikariDataSource primary = pool(poolSettings, registry, "primary", properties.determineDriverClassName(),
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaRouting.getReplicaUrls()) {
+            HikariDataSource replica = pool(poolSettings, registry, "replica-" + replicas.size(),
+                    properties.determineDriverClassName(), url, username, password);
+            //a replica is never written through this application
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaRouting replicaRouting) {
+        return new ReadYourWritesFilter(replicaRouting);
+    }
+
+    //started on the first connection, like the auto-configured pool
+    private static HikariDataSource pool(HikariConfig settings, MeterRegistry registry, String name, String driver,
+                                         String url, String username, String password) {
+        HikariDataSource pool = new HikariDataSource();
+        settings.copyStateTo(pool);
+        pool.setPoolName(name);
+        pool.setDriverClassName(driver);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        if (registry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        return pool;
+    }
+}
@@ -1,8 +1,13 @@
 package com.library.management.controller;
 
 import com.library.management.dto.BookDto;
+import com.library.management.dto.BulkImportResultDto;
 import com.library.management.entities.Book;
+import com.library.management.model.CursorPage;
+import com.library.management.service.BookEvents;
 import com.library.management.service.BookService;
+import com.library.management.service.BulkImportService;
+import com.library.management.service.CatalogVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,11 +16,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -23,8 +35,18 @@ import java.util.List;
 @Tag(name = "Book", description = "Perform CRUD operations on books")
 public class BookController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    //shared caches may keep catalog responses but have to revalidate them with the ETag
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
     @Autowired
     private BookService bookService;
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private BookEvents bookEvents;
 
     @Operation(
             summary = "Add new book"
@@ -42,6 +64,39 @@ public class BookController {
         return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
     }
 
+    @Operation(
+            summary = "Import many books at once",
+            description = "Body is CSV with a title,author header or one JSON object per line. "
+                    + "Rows that cannot be imported are listed in the result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkImportResultDto.class))}),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type: use text/csv or application/x-ndjson",
+                    content = @Content)})
+    @PostMapping(value = "/admin/book/_bulk", consumes = {BulkImportService.CSV, BulkImportService.NDJSON})
+    public ResponseEntity<BulkImportResultDto> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) throws IOException {
+        return new ResponseEntity<>(bulkImportService.importBooks(body, contentType), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Follow availability changes",
+            description = "Server-sent availability events with the book id, isIssued, availableCopies and a version, "
+                    + "deleted books come with deleted set. A client that falls behind is disconnected and should "
+                    + "reload the catalog when it reconnects"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Events follow as books change",
+                    content = {@Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)}),
+            @ApiResponse(responseCode = "503", description = "Too many subscribers")
+    })
+    @GetMapping(value = "/public/book/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter bookEvents() {
+        return bookEvents.subscribe();
+    }
+
     @Operation(
             summary = "Retrieve book by book name"
     )
@@ -51,29 +106,75 @@ public class BookController {
                     description = "Book found",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = Book.class))}),
+            @ApiResponse(responseCode = "304",
+                    description = "Book unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404",
                     description = "Book not found",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = Book.class))}),
     })
     @GetMapping("/public/book/{name}")
-    public ResponseEntity<BookDto> getBookByName(@PathVariable("name") String name) {
+    public ResponseEntity<BookDto> getBookByName(@PathVariable("name") String name, WebRequest webRequest) {
+        //the version is read before the lookup, a change committed in between only costs a full response next time
+        CatalogVersion.Stamp version = catalogVersion.book(name);
+        if (webRequest.checkNotModified(version.getETag(), version.getLastModified())) {
+            return null;
+        }
         BookDto book = bookService.getBookByName(name);
-        return new ResponseEntity<>(book, HttpStatus.OK);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(book);
     }
 
     @Operation(
-            summary = "Retrieve all books"
+            summary = "Retrieve books one page at a time",
+            description = "Pass the X-Next-Cursor response header back as cursor to fetch the next page"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "Books found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Book.class))}),
+            @ApiResponse(responseCode = "304",
+                    description = "Catalog unchanged since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid cursor, size or sort",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = Book.class))})
     })
     @GetMapping("/public/book")
-    public ResponseEntity<List<BookDto>> getAllBooks() {
-        List<BookDto> list = bookService.getAllBooks();
+    public ResponseEntity<List<BookDto>> getAllBooks(@RequestParam(value = "cursor", required = false) String cursor,
+                                                     @RequestParam(value = "size", defaultValue = "50") int size,
+                                                     @RequestParam(value = "sort", required = false) String sort,
+                                                     WebRequest webRequest) {
+        CatalogVersion.Stamp version = catalogVersion.catalog();
+        if (webRequest.checkNotModified(version.getETag(), version.getLastModified())) {
+            return null;
+        }
+        CursorPage<BookDto> page = bookService.getBooks(cursor, size, sort);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(REVALIDATE);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @Operation(
+            summary = "Search books by title and author",
+            description = "Matches whole words, prefixes and small typos"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Matching books, best match first",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Book.class))}),
+            @ApiResponse(responseCode = "400",
+                    description = "Missing query or invalid limit",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Book.class))})
+    })
+    @GetMapping("/public/book/search")
+    public ResponseEntity<List<BookDto>> searchBooks(@RequestParam(value = "q", required = false) String query,
+                                                     @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        List<BookDto> list = bookService.searchBooks(query, limit);
         return new ResponseEntity<>(list, HttpStatus.OK);
     }
 
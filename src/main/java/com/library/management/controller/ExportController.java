@@ -0,0 +1,61 @@
+package com.library.management.controller;
+
+import com.library.management.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@Tag(name = "Export", description = "Download books, users and loans for reporting")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Operation(
+            summary = "Export a whole table",
+            description = "Streams books, users or orders as one JSON object per line, or as CSV with format=csv. "
+                    + "The response is gzip compressed when the request accepts gzip"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rows follow as they are read",
+                    content = {@Content(mediaType = ExportService.NDJSON), @Content(mediaType = ExportService.CSV)}),
+            @ApiResponse(responseCode = "400", description = "Unknown table or format")
+    })
+    @GetMapping("/admin/export/{table}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable("table") String table,
+                                                        @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String contentType = exportService.contentType(table, format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream zipped = new GZIPOutputStream(out, ExportService.BUFFER_SIZE);
+                exportService.export(table, format, zipped);
+                zipped.finish();
+            } else {
+                exportService.export(table, format, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(table + "." + format).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
@@ -1,8 +1,13 @@
 package com.library.management.controller;
 
+import com.library.management.dto.HoldDto;
+import com.library.management.dto.OrderDto;
 import com.library.management.entities.Book;
 import com.library.management.entities.Order;
+import com.library.management.model.CursorPage;
 import com.library.management.model.CustomUserDetail;
+import com.library.management.model.ErrorResponse;
+import com.library.management.service.HoldService;
 import com.library.management.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,14 +16,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Validated
 @Tag(name = "Order", description = "Order API to issue book by user")
 @RestController
@@ -26,6 +38,8 @@ public class OrderController {
 
     @Autowired
     OrderService orderService;
+    @Autowired
+    HoldService holdService;
 
     @Operation(
             summary = "Issue book"
@@ -62,4 +76,119 @@ public class OrderController {
         orderService.returnBook(customUserDetail.getId());
         return new ResponseEntity<>("Book returned successfully", HttpStatus.OK);
     }
+
+    @Operation(
+            summary = "Join the waitlist of a book",
+            description = "A returned copy is kept for the patron who has waited longest until the pickup window "
+                    + "closes, issuing the book then takes that copy"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Added to the waitlist",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = HoldDto.class))}),
+            @ApiResponse(responseCode = "400", description = "A copy is available or the user already has this book",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))}),
+            @ApiResponse(responseCode = "404", description = "Not Found: Book/User not found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))}),
+            @ApiResponse(responseCode = "409", description = "Already on the waitlist",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))})})
+    @PostMapping("/public/order/{id}/hold")
+    public ResponseEntity<HoldDto> placeHold(@AuthenticationPrincipal CustomUserDetail customUserDetail, @PathVariable("id") int bookId) {
+        return new ResponseEntity<>(holdService.placeHold(customUserDetail.getId(), bookId), HttpStatus.CREATED);
+    }
+
+    @Operation(
+            summary = "Place of the current user on the waitlist of a book"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = HoldDto.class))}),
+            @ApiResponse(responseCode = "404", description = "No hold on this book",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))})})
+    @GetMapping("/public/order/{id}/hold")
+    public ResponseEntity<HoldDto> getHold(@AuthenticationPrincipal CustomUserDetail customUserDetail, @PathVariable("id") int bookId) {
+        return new ResponseEntity<>(holdService.getHold(customUserDetail.getId(), bookId), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "All holds of the current user, copies ready for pickup first"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Holds found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = HoldDto.class))})})
+    @GetMapping("/public/order/hold")
+    public ResponseEntity<List<HoldDto>> getHolds(@AuthenticationPrincipal CustomUserDetail customUserDetail) {
+        return new ResponseEntity<>(holdService.getHolds(customUserDetail.getId()), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Leave the waitlist of a book"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold cancelled",
+                    content = {@Content(mediaType = "application/json")}),
+            @ApiResponse(responseCode = "404", description = "No hold on this book",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))})})
+    @DeleteMapping("/public/order/{id}/hold")
+    public ResponseEntity<String> cancelHold(@AuthenticationPrincipal CustomUserDetail customUserDetail, @PathVariable("id") int bookId) {
+        holdService.cancelHold(customUserDetail.getId(), bookId);
+        return new ResponseEntity<>("Hold cancelled", HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Loan history of the current user, newest first",
+            description = "Pass the X-Next-Cursor response header back as cursor to fetch the next page"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OrderDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OrderDto.class))})})
+    @GetMapping("/public/order/history")
+    public ResponseEntity<List<OrderDto>> getHistory(@AuthenticationPrincipal CustomUserDetail customUserDetail,
+                                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                                     @RequestParam(value = "size", defaultValue = "50") int size) {
+        return page(orderService.getHistory(customUserDetail.getId(), cursor, size));
+    }
+
+    @Operation(
+            summary = "Search all orders, newest first",
+            description = "Filter by username, book title and an inclusive range of days (yyyy-MM-dd). "
+                    + "Pass the X-Next-Cursor response header back as cursor to fetch the next page"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OrderDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, size or date",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OrderDto.class))})})
+    @GetMapping("/admin/order")
+    public ResponseEntity<List<OrderDto>> getOrders(@RequestParam(value = "user", required = false) String username,
+                                                    @RequestParam(value = "book", required = false) String title,
+                                                    @RequestParam(value = "from", required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam(value = "to", required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                                    @RequestParam(value = "size", defaultValue = "50") int size) {
+        return page(orderService.getOrders(username, title, from, to, cursor, size));
+    }
+
+    private ResponseEntity<List<OrderDto>> page(CursorPage<OrderDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(BookController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
 }
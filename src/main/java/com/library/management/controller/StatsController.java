@@ -0,0 +1,75 @@
+package com.library.management.controller;
+
+import com.library.management.dto.CacheStatsDto;
+import com.library.management.dto.HashingStatsDto;
+import com.library.management.dto.LedgerStatsDto;
+import com.library.management.service.LoanLedger;
+import com.library.management.service.LookupCache;
+import com.library.management.service.PasswordHashingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@Tag(name = "Stats", description = "Runtime statistics for administrators")
+public class StatsController {
+
+    @Autowired
+    private LookupCache lookupCache;
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    @Autowired
+    private LoanLedger loanLedger;
+
+    @Operation(
+            summary = "Hit, miss and eviction counts of the lookup caches"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Statistics per cache name",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CacheStatsDto.class))})
+    })
+    @GetMapping("/admin/stats/cache")
+    public ResponseEntity<Map<String, CacheStatsDto>> getCacheStats() {
+        return new ResponseEntity<>(lookupCache.getStats(), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Queue depth and latency of the password hashing pool"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Hashing pool statistics",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = HashingStatsDto.class))})
+    })
+    @GetMapping("/admin/stats/hashing")
+    public ResponseEntity<HashingStatsDto> getHashingStats() {
+        return new ResponseEntity<>(passwordHashingService.getStats(), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Mode, queue depth and write counts of the loan ledger"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Loan ledger statistics",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = LedgerStatsDto.class))})
+    })
+    @GetMapping("/admin/stats/ledger")
+    public ResponseEntity<LedgerStatsDto> getLedgerStats() {
+        return new ResponseEntity<>(loanLedger.getStats(), HttpStatus.OK);
+    }
+}
@@ -1,11 +1,15 @@
 package com.library.management.controller;
 
 import com.library.management.dto.AdminUpdateUserDto;
+import com.library.management.dto.BulkImportResultDto;
 import com.library.management.dto.GetUserDto;
 import com.library.management.dto.PostUserDto;
 import com.library.management.dto.UserUpdateUserDto;
 import com.library.management.entities.User;
+import com.library.management.model.CursorPage;
 import com.library.management.model.CustomUserDetail;
+import com.library.management.service.BulkImportService;
+import com.library.management.service.CatalogVersion;
 import com.library.management.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,12 +19,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -30,6 +39,10 @@ public class UserController {
 
     @Autowired
     private UserService userService;
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private CatalogVersion catalogVersion;
 
     @Operation(
             summary = "Retrieve user by name"
@@ -40,30 +53,48 @@ public class UserController {
                     description = "User found",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = User.class))}),
+            @ApiResponse(responseCode = "304",
+                    description = "User unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404",
                     description = "User not found",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = User.class))}),
     })
     @GetMapping("/public/user/{username}")
-    public ResponseEntity<GetUserDto> getUserByName(@PathVariable("username") String username) {
+    public ResponseEntity<GetUserDto> getUserByName(@PathVariable("username") String username, WebRequest webRequest) {
+        CatalogVersion.Stamp version = catalogVersion.user(username);
+        if (webRequest.checkNotModified(version.getETag(), version.getLastModified())) {
+            return null;
+        }
         GetUserDto user = userService.getUserByName(username);
-        return new ResponseEntity<>(user, HttpStatus.OK);
+        //only the client may keep a user, and has to revalidate it
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(user);
     }
 
     @Operation(
-            summary = "Retrieve all users"
+            summary = "Retrieve users one page at a time",
+            description = "Pass the X-Next-Cursor response header back as cursor to fetch the next page"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "User found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = User.class))}),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid cursor, size or sort",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = User.class))})
     })
     @GetMapping("/public/user")
-    public ResponseEntity<List<GetUserDto>> getAllUsers() {
-        List<GetUserDto> list = userService.getAllUsers();
-        return new ResponseEntity<>(list, HttpStatus.OK);
+    public ResponseEntity<List<GetUserDto>> getAllUsers(@RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestParam(value = "size", defaultValue = "50") int size,
+                                                        @RequestParam(value = "sort", required = false) String sort) {
+        CursorPage<GetUserDto> page = userService.getUsers(cursor, size, sort);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(BookController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @Operation(
@@ -85,6 +116,23 @@ public class UserController {
         return new ResponseEntity<>(userAdded, HttpStatus.CREATED);
     }
 
+    @Operation(
+            summary = "Import many users at once",
+            description = "Body is CSV with a username,password header or one JSON object per line. "
+                    + "Imported users get the USER role, rows that cannot be imported are listed in the result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkImportResultDto.class))}),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type: use text/csv or application/x-ndjson",
+                    content = @Content)})
+    @PostMapping(value = "/admin/user/_bulk", consumes = {BulkImportService.CSV, BulkImportService.NDJSON})
+    public ResponseEntity<BulkImportResultDto> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) throws IOException {
+        return new ResponseEntity<>(bulkImportService.importUsers(body, contentType), HttpStatus.OK);
+    }
+
     //used by admin to change username and role only
     @Operation(
             summary = "Update username and role by admin"
@@ -1,5 +1,6 @@
 package com.library.management.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -17,6 +18,19 @@ public class BookDto {
     @NotEmpty(message = "Title is mandatory")
     private String title;
     private String author;
-    private String user;
+    //defaults to one copy when a book is added, left out of an update it keeps the current count
+    @Min(value = 1, message = "A book needs at least one copy")
+    private Integer totalCopies;
+    private Integer availableCopies;
+    //true when every copy is out on loan
     private Boolean isIssued;
+
+    public BookDto(int id, String title, String author, int totalCopies, Long availableCopies) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.totalCopies = totalCopies;
+        this.availableCopies = availableCopies == null ? 0 : availableCopies.intValue();
+        this.isIssued = this.availableCopies == 0;
+    }
 }
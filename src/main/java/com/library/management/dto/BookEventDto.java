@@ -0,0 +1,20 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+//availability of one book after a change, deleted books come with deleted set and no counts
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BookEventDto {
+
+    private int id;
+    private Boolean isIssued;
+    private Integer availableCopies;
+    private boolean deleted;
+    private long version;
+}
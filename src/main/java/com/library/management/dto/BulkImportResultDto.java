@@ -0,0 +1,22 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BulkImportResultDto {
+
+    private long received;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private List<BulkRowErrorDto> errors = new ArrayList<>();
+}
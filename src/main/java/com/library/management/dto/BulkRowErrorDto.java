@@ -0,0 +1,18 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BulkRowErrorDto {
+
+    //line of the uploaded file, the CSV header is line 1
+    private long line;
+    private String key;
+    private String message;
+}
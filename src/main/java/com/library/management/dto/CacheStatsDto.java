@@ -0,0 +1,18 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CacheStatsDto {
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+}
@@ -0,0 +1,23 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class HashingStatsDto {
+
+    private int strength;
+    private int threads;
+    private int queueDepth;
+    private int queueCapacity;
+    private long completed;
+    private long rejected;
+    //from submission to result, so queueing time is included
+    private double averageMillis;
+    private double maxMillis;
+}
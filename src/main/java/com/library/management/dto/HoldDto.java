@@ -0,0 +1,20 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class HoldDto {
+
+    private int bookId;
+    //1 is next in line, 0 means a copy is kept for pickup until readyUntil
+    private int position;
+    private LocalDateTime readyUntil;
+}
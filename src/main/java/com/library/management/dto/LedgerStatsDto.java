@@ -0,0 +1,23 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class LedgerStatsDto {
+
+    private String mode;
+    private int queueDepth;
+    private int queueCapacity;
+    private long written;
+    private long batches;
+    //events written on the request thread because the queue was full
+    private long fallbacks;
+    //events dropped because their row violates a constraint, e.g. the user was deleted since
+    private long failed;
+}
@@ -0,0 +1,22 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class OrderDto {
+
+    private int orderId;
+    private String username;
+    private int bookId;
+    private String title;
+    private LocalDateTime orderDate;
+    private String orderType;
+}
@@ -1,7 +1,6 @@
 package com.library.management.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
@@ -19,22 +18,40 @@ import java.util.List;
 @Entity
 @Table(uniqueConstraints = {@UniqueConstraint(columnNames = "title")})
 public class Book {
+
+    public static final int MAX_STRIPES = 8;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    //ids are reserved a block at a time, one sequence round trip covers a whole insert batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 100)
     private int id;
 
     @NotEmpty(message = "Title is mandatory")
     private String title;
 
     private String author;
-    private Boolean isIssued;
 
-    @OneToOne
-    @JoinColumn(name = "username", referencedColumnName = "username")
-    @JsonManagedReference
-    private User user;
+    //copies owned by the library, the ones on the shelf are counted in stock
+    private int totalCopies = 1;
+
+    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    private List<BookStock> stock = new ArrayList<>();
 
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private List<Order> orders = new ArrayList<>();
+
+    //a new book puts all of its copies on the shelf, spread over up to MAX_STRIPES rows
+    @PrePersist
+    void stockCopies() {
+        if (!stock.isEmpty()) {
+            return;
+        }
+        int stripes = Math.min(totalCopies, MAX_STRIPES);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            stock.add(new BookStock(this, stripe, totalCopies / stripes + (stripe < totalCopies % stripes ? 1 : 0)));
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package com.library.management.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One stripe of a book's shelf count. The copies of a title are spread over a few of these rows
+ * so concurrent checkouts decrement different rows instead of queueing on one lock.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "book_stock", uniqueConstraints = {@UniqueConstraint(columnNames = {"book_id", "stripe"})})
+public class BookStock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_stock_seq")
+    @SequenceGenerator(name = "book_stock_seq", sequenceName = "book_stock_seq", allocationSize = 100)
+    private int id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    @JsonIgnore
+    private Book book;
+
+    private int stripe;
+
+    //copies of this stripe currently on the shelf
+    private int available;
+
+    public BookStock(Book book, int stripe, int available) {
+        this.book = book;
+        this.stripe = stripe;
+        this.available = available;
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.management.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+//the waitlist of a book is read in the order holds were placed
+@Table(name = "holds", uniqueConstraints = {@UniqueConstraint(columnNames = {"user_id", "book_id"})},
+        indexes = {@Index(name = "idx_holds_book_placed", columnList = "book_id, placedAt")})
+public class Hold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "holds_seq")
+    @SequenceGenerator(name = "holds_seq", sequenceName = "holds_seq", allocationSize = 100)
+    private int id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    @JsonIgnore
+    private Book book;
+
+    private LocalDateTime placedAt;
+
+    //set once a returned copy is kept for this patron, null while still waiting
+    private LocalDateTime readyUntil;
+
+    public Hold(User user, Book book, LocalDateTime placedAt) {
+        this.user = user;
+        this.book = book;
+        this.placedAt = placedAt;
+    }
+}
@@ -1,6 +1,5 @@
 package com.library.management.entities;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
@@ -22,7 +21,8 @@ import java.util.List;
 @Table(uniqueConstraints = {@UniqueConstraint(columnNames = "username")})
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 100)
     private int id;
 
     @NotEmpty(message = "Username is mandatory")
@@ -32,8 +32,10 @@ public class User {
 
     private String role;
 
-    @OneToOne(mappedBy = "user")
-    @JsonBackReference
+    //the title this user has a copy of, at most one at a time
+    @ManyToOne
+    @JoinColumn(name = "issued_book_id")
+    @JsonIgnore
     private Book issuedBook;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
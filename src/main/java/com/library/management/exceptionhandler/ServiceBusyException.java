@@ -0,0 +1,7 @@
+package com.library.management.exceptionhandler;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
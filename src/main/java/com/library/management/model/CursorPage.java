@@ -0,0 +1,32 @@
+package com.library.management.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    //rows were fetched with one extra to know whether another page exists, key gives the sort value
+    public static <T> CursorPage<T> of(List<T> rows, int size, String sort, Function<T, String> key) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, new PageCursor(sort, key.apply(items.get(size - 1))).encode());
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    //null when this is the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
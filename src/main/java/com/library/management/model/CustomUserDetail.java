@@ -4,36 +4,45 @@ import com.library.management.entities.User;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.HashSet;
 
-@Service
+//holds only what authentication needs, so a cached principal does not pin the user's entity graph
 public class CustomUserDetail implements UserDetails {
 
-    private final User user;
+    private final int id;
+    private final String username;
+    private final String password;
+    private final String role;
 
     public CustomUserDetail(User user) {
-        this.user = user;
+        this(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
+    }
+
+    public CustomUserDetail(int id, String username, String password, String role) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
 
         HashSet<SimpleGrantedAuthority> set = new HashSet<>();
-        set.add(new SimpleGrantedAuthority("ROLE_" + this.user.getRole()));
+        set.add(new SimpleGrantedAuthority("ROLE_" + this.role));
         return set;
     }
 
     @Override
     public String getPassword() {
-        return this.user.getPassword();
+        return this.password;
     }
 
     @Override
     public String getUsername() {
-        return this.user.getUsername();
+        return this.username;
     }
 
     @Override
@@ -57,6 +66,10 @@ public class CustomUserDetail implements UserDetails {
     }
 
     public int getId() {
-        return this.user.getId();
+        return this.id;
+    }
+
+    public String getRole() {
+        return this.role;
     }
 }
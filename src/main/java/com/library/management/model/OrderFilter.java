@@ -0,0 +1,24 @@
+package com.library.management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+//every field is optional, null means no restriction
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class OrderFilter {
+
+    private Integer userId;
+    private String username;
+    private String title;
+    //inclusive
+    private LocalDateTime from;
+    //exclusive
+    private LocalDateTime to;
+}
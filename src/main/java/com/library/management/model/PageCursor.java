@@ -0,0 +1,78 @@
+package com.library.management.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset continuation token. The token carries the sort key it was issued for and the
+ * last value returned, so the next page starts strictly after it. The servlet services and the
+ * reactive catalog node read page requests through resolve, so both accept the same cursors.
+ */
+public class PageCursor {
+
+    private final String sort;
+    private final String after;
+
+    public PageCursor(String sort, String after) {
+        this.sort = sort;
+        this.after = after;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    //true for the first page, there is nothing to continue after
+    public boolean isFirstPage() {
+        return after == null;
+    }
+
+    public int getAfterId() {
+        try {
+            return Integer.parseInt(after);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sort + ":" + after;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks a page request and returns the cursor to continue after, or a first page cursor for the
+     * requested sort, id when none is given. A cursor keeps the sort it was issued for.
+     */
+    public static PageCursor resolve(String token, int size, int maxSize, String sort) {
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("Page size should be between 1 and " + maxSize);
+        }
+        if (token == null || token.isEmpty()) {
+            return new PageCursor(sort == null ? "id" : sort, null);
+        }
+        PageCursor after = decode(token);
+        if (sort != null && !sort.equals(after.getSort())) {
+            throw new IllegalArgumentException("Cursor was issued for sort '" + after.getSort() + "'");
+        }
+        return after;
+    }
+
+    public static PageCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int separator = raw.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new PageCursor(raw.substring(0, separator), raw.substring(separator + 1));
+    }
+}
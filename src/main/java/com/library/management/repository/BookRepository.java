@@ -1,14 +1,57 @@
 package com.library.management.repository;
 
+import com.library.management.dto.BookDto;
 import com.library.management.entities.Book;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Integer> {
+
+    //select list shared by the BookDto projections, the shelf count is summed over the book's stock stripes
+    String BOOK_DTO = "select new com.library.management.dto.BookDto(b.id, b.title, b.author, b.totalCopies, "
+            + "(select sum(s.available) from BookStock s where s.book = b)) from Book b ";
+
+    //rows per round trip of the export streams, MySQL needs useCursorFetch=true to honour it
+    String EXPORT_FETCH_SIZE = "1000";
+
     public Book findByTitle(String title);
 
+
+    @Query(BOOK_DTO + "where b.title = :title")
+    public BookDto findDtoByTitle(@Param("title") String title);
+
+    @Query(BOOK_DTO + "order by b.id")
+    public List<BookDto> findAllDtos();
+
+    //forward-only cursor for exports, has to be read inside a transaction and closed
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BOOK_DTO + "order by b.id")
+    public Stream<BookDto> streamAllDtos();
+
+    @Query(BOOK_DTO + "where b.id in :ids")
+    public List<BookDto> findDtosByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("select b.title from Book b where b.title in :titles")
+    public List<String> findTitlesIn(@Param("titles") Collection<String> titles);
+
+    @Query(BOOK_DTO + "where b.id > :id order by b.id")
+    public List<BookDto> findDtosAfterId(@Param("id") int id, Limit limit);
+
+    @Query(BOOK_DTO + "where b.title > :title order by b.title")
+    public List<BookDto> findDtosAfterTitle(@Param("title") String title, Limit limit);
+
     @Transactional
     public void removeByTitle(String title);
 }
@@ -0,0 +1,39 @@
+package com.library.management.repository;
+
+import com.library.management.entities.BookStock;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookStockRepository extends JpaRepository<BookStock, Integer> {
+
+    @Query("select s.id from BookStock s where s.book.id = :bookId and s.available > 0")
+    public List<Integer> findIdsWithCopies(@Param("bookId") int bookId);
+
+    @Query("select s.id from BookStock s where s.book.id = :bookId")
+    public List<Integer> findIdsByBookId(@Param("bookId") int bookId);
+
+    //taken by resizing, returns and holds, so no checkout or hold slips in between; checkouts alone never take it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from BookStock s where s.book.id = :bookId order by s.stripe")
+    public List<BookStock> lockByBookId(@Param("bookId") int bookId);
+
+    //takes one copy off this stripe, 0 means it was already empty
+    @Transactional
+    @Modifying
+    @Query("update BookStock s set s.available = s.available - 1 where s.id = :id and s.available > 0")
+    public int takeCopy(@Param("id") int id);
+
+    @Transactional
+    @Modifying
+    @Query("update BookStock s set s.available = s.available + 1 where s.id = :id")
+    public int putBackCopy(@Param("id") int id);
+}
@@ -0,0 +1,57 @@
+package com.library.management.repository;
+
+import com.library.management.entities.Hold;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Integer> {
+
+    public Hold findByUserIdAndBookId(int userId, int bookId);
+
+    public List<Hold> findByUserId(int userId);
+
+    @Query("select h from Hold h order by h.placedAt, h.id")
+    public List<Hold> findAllInOrder();
+
+    //a locking read sees holds committed since the transaction started, not an older snapshot
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Hold h where h.book.id = :bookId and h.readyUntil is null order by h.placedAt, h.id")
+    public List<Hold> findWaiting(@Param("bookId") int bookId, Limit limit);
+
+    //0 means the hold was cancelled or already promoted by a parallel return
+    @Transactional
+    @Modifying
+    @Query("update Hold h set h.readyUntil = :until where h.id = :id and h.readyUntil is null")
+    public int markReady(@Param("id") int id, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Hold h where h.id = :id and h.readyUntil is null")
+    public int deleteWaiting(@Param("id") int id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Hold h where h.id = :id and h.readyUntil is not null")
+    public int deleteReady(@Param("id") int id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Hold h where h.id = :id and h.readyUntil <= :now")
+    public int deleteExpired(@Param("id") int id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Hold h where h.book.id = :bookId")
+    public int deleteByBookId(@Param("bookId") int bookId);
+}
@@ -1,9 +1,21 @@
 package com.library.management.repository;
 
+import com.library.management.dto.OrderDto;
 import com.library.management.entities.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+public interface OrderRepository extends JpaRepository<Order, Integer>, OrderRepositoryCustom {
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = BookRepository.EXPORT_FETCH_SIZE))
+    @Query("select new com.library.management.dto.OrderDto(o.order_id, u.username, b.id, b.title, o.orderDate, "
+            + "o.orderType) from Order o join o.user u join o.book b order by o.order_id")
+    public Stream<OrderDto> streamAllDtos();
 }
@@ -0,0 +1,13 @@
+package com.library.management.repository;
+
+import com.library.management.dto.OrderDto;
+import com.library.management.model.OrderFilter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    //newest first, strictly after (afterDate, afterId) when both are given
+    List<OrderDto> findDtos(OrderFilter filter, LocalDateTime afterDate, Integer afterId, int limit);
+}
@@ -0,0 +1,59 @@
+package com.library.management.repository;
+
+import com.library.management.dto.OrderDto;
+import com.library.management.model.OrderFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the history query from only the filters that are set, so each variant keeps a plain
+ * predicate the (user_id, orderDate) or (book_id, orderDate) index can range-scan, instead of
+ * "param is null or ..." conditions that defeat it.
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderDto> findDtos(OrderFilter filter, LocalDateTime afterDate, Integer afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("select new com.library.management.dto.OrderDto(o.order_id, u.username, "
+                + "b.id, b.title, o.orderDate, o.orderType) from Order o join o.user u join o.book b where 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        if (filter.getUserId() != null) {
+            jpql.append(" and u.id = :userId");
+            params.put("userId", filter.getUserId());
+        }
+        if (filter.getUsername() != null) {
+            jpql.append(" and u.username = :username");
+            params.put("username", filter.getUsername());
+        }
+        if (filter.getTitle() != null) {
+            jpql.append(" and b.title = :title");
+            params.put("title", filter.getTitle());
+        }
+        if (filter.getFrom() != null) {
+            jpql.append(" and o.orderDate >= :from");
+            params.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" and o.orderDate < :to");
+            params.put("to", filter.getTo());
+        }
+        if (afterDate != null && afterId != null) {
+            jpql.append(" and (o.orderDate < :afterDate or (o.orderDate = :afterDate and o.order_id < :afterId))");
+            params.put("afterDate", afterDate);
+            params.put("afterId", afterId);
+        }
+        jpql.append(" order by o.orderDate desc, o.order_id desc");
+        TypedQuery<OrderDto> query = entityManager.createQuery(jpql.toString(), OrderDto.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
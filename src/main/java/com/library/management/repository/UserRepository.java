@@ -1,15 +1,84 @@
 package com.library.management.repository;
 
+import com.library.management.dto.GetUserDto;
+import com.library.management.entities.Book;
 import com.library.management.entities.User;
+import com.library.management.model.CustomUserDetail;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
+
+    //select list shared by the GetUserDto projections, the book join replaces one eager load per user
+    String USER_DTO = "select new com.library.management.dto.GetUserDto(u.id, u.username, u.role, b.title) "
+            + "from User u left join u.issuedBook b ";
+
     public User findByUsername(String username);
+
+    //only the columns authentication needs, without joining the issued book
+    @Query("select new com.library.management.model.CustomUserDetail(u.id, u.username, u.password, u.role) "
+            + "from User u where u.username = :username")
+    public CustomUserDetail findPrincipalByUsername(@Param("username") String username);
+
+
+    @Query(USER_DTO + "where u.username = :username")
+    public GetUserDto findDtoByUsername(@Param("username") String username);
+
+    @Query(USER_DTO + "order by u.id")
+    public List<GetUserDto> findAllDtos();
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = BookRepository.EXPORT_FETCH_SIZE))
+    @Query(USER_DTO + "order by u.id")
+    public Stream<GetUserDto> streamAllDtos();
+
+    @Query("select u.username from User u where u.username in :usernames")
+    public List<String> findUsernamesIn(@Param("usernames") Collection<String> usernames);
+
+    @Query(USER_DTO + "where u.id > :id order by u.id")
+    public List<GetUserDto> findDtosAfterId(@Param("id") int id, Limit limit);
+
+    @Query(USER_DTO + "where u.username > :username order by u.username")
+    public List<GetUserDto> findDtosAfterUsername(@Param("username") String username, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    public int updatePassword(@Param("id") int id, @Param("password") String password);
+
+    @Query("select u.username from User u where u.issuedBook.id = :bookId")
+    public List<String> findUsernamesByIssuedBookId(@Param("bookId") int bookId);
+
+    //records the loan only if the user holds nothing, 0 means another checkout by this user got there first
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.issuedBook = :book where u.id = :id and u.issuedBook is null")
+    public int holdIfFree(@Param("id") int id, @Param("book") Book book);
+
+    //ends the loan only while this user still holds the book
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.issuedBook = null where u.id = :id and u.issuedBook = :book")
+    public int releaseIfHolding(@Param("id") int id, @Param("book") Book book);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.issuedBook = null where u.issuedBook.id = :bookId")
+    public int releaseAllHolding(@Param("bookId") int bookId);
+
     @Transactional
     public void removeByUsername(String username);
 }
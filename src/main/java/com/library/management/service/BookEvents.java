@@ -0,0 +1,289 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BookDto;
+import com.library.management.dto.BookEventDto;
+import com.library.management.exceptionhandler.ServiceBusyException;
+import com.library.management.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes availability changes to server-sent event subscribers. Writers name the changed book and
+ * go on, a single dispatcher reads the committed state of every book changed since its last run
+ * and queues one event per subscriber. Each subscriber has a bounded queue drained by the sender
+ * pool, a subscriber whose queue overflows is too slow to keep up and is disconnected. So is one
+ * whose write runs past library.events.send-timeout: the blocked sender is written off and, up to
+ * MAX_REPLACEMENT_SENDERS at a time, a replacement joins the pool until the write returns, which
+ * the container's write timeout bounds. Past that the subscriber is only dropped.
+ */
+@Component
+public class BookEvents {
+
+    private static final Logger log = LoggerFactory.getLogger(BookEvents.class);
+
+    //extra senders for writes that are stuck, so clients that stop reading cannot grow the pool further
+    static final int MAX_REPLACEMENT_SENDERS = 4;
+    private static final long REPLACED = -1;
+    private static final long DROPPED = -2;
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        //true while a sender owns the queue, events are written by one thread at a time
+        final AtomicBoolean sending = new AtomicBoolean();
+        //System.nanoTime() when the current write started, 0 when idle, REPLACED or DROPPED once written off
+        final AtomicLong writeStarted = new AtomicLong();
+        volatile boolean evicted;
+
+        Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${library.events.buffer-size:64}")
+    private int bufferSize;
+    @Value("${library.events.max-subscribers:10000}")
+    private int maxSubscribers;
+    @Value("${library.events.sender-threads:4}")
+    private int senderThreads;
+    @Value("${library.events.heartbeat:PT15S}")
+    private Duration heartbeat;
+    @Value("${library.events.timeout:PT30M}")
+    private Duration timeout;
+    @Value("${library.events.send-timeout:PT10S}")
+    private Duration sendTimeout;
+
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    //subscribers with a write in progress, evicted ones included
+    private final Set<Subscriber> writing = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private ScheduledExecutorService dispatcher;
+    private ThreadPoolExecutor senders;
+
+    @PostConstruct
+    public void start() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(daemon("book-events"));
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemon("book-events-sender"));
+        //a comment line keeps proxies from closing idle streams and finds clients that went away
+        long every = heartbeat.toMillis();
+        dispatcher.scheduleWithFixedDelay(() -> fanOut(SseEmitter.event().comment("").build()),
+                every, every, TimeUnit.MILLISECONDS);
+        long check = Math.max(10, sendTimeout.toMillis() / 2);
+        dispatcher.scheduleWithFixedDelay(this::expireWrites, check, check, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.keySet().forEach(SseEmitter::complete);
+    }
+
+    public SseEmitter subscribe() {
+        return register(new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter register(SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceBusyException("Too many availability subscribers, please retry shortly");
+        }
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        subscribers.put(emitter, subscriber);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(ex -> subscribers.remove(emitter));
+        return emitter;
+    }
+
+    //the book's availability may have changed, sent once the current transaction commits
+    public void changed(int bookId) {
+        TransactionHooks.afterCommit(() -> schedule(bookId));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getEvicted() {
+        return evicted.get();
+    }
+
+    public int getSenderThreads() {
+        return senders.getCorePoolSize();
+    }
+
+    private void schedule(int bookId) {
+        changed.add(bookId);
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    //changes to the same book since the last run become one event with its latest state
+    private void dispatch() {
+        dispatchScheduled.set(false);
+        Set<Integer> ids = new HashSet<>();
+        for (Integer id : changed) {
+            changed.remove(id);
+            ids.add(id);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            Set<Integer> deleted = new HashSet<>(ids);
+            for (BookDto book : bookRepository.findDtosByIdIn(ids)) {
+                deleted.remove(book.getId());
+                send(new BookEventDto(book.getId(), book.getIsIssued(), book.getAvailableCopies(), false,
+                        versions.incrementAndGet()));
+            }
+            for (Integer id : deleted) {
+                send(new BookEventDto(id, null, null, true, versions.incrementAndGet()));
+            }
+        } catch (RuntimeException ex) {
+            log.error("Could not send availability of books {}", ids, ex);
+        }
+    }
+
+    private void send(BookEventDto event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        //serialized once, every subscriber gets the same frames
+        fanOut(SseEmitter.event().id(String.valueOf(event.getVersion())).name("availability")
+                .data(data, MediaType.APPLICATION_JSON).build());
+    }
+
+    private void fanOut(Set<ResponseBodyEmitter.DataWithMediaType> frames) {
+        for (Subscriber subscriber : subscribers.values()) {
+            if (!subscriber.queue.offer(frames)) {
+                evict(subscriber);
+            } else if (subscriber.sending.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            if (subscriber.evicted) {
+                //the client reconnects and starts from the current catalog
+                subscriber.emitter.complete();
+                return;
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> frames = subscriber.queue.poll();
+            if (frames == null) {
+                subscriber.sending.set(false);
+                //an event queued after the poll but before the flag was cleared is ours to send
+                if ((subscriber.queue.isEmpty() && !subscriber.evicted) || !subscriber.sending.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            subscriber.writeStarted.set(System.nanoTime());
+            writing.add(subscriber);
+            try {
+                subscriber.emitter.send(frames);
+            } catch (Exception ex) {
+                //the client went away
+                subscribers.remove(subscriber.emitter);
+                subscriber.queue.clear();
+                subscriber.emitter.completeWithError(ex);
+                return;
+            } finally {
+                writing.remove(subscriber);
+                if (subscriber.writeStarted.getAndSet(0) == REPLACED) {
+                    //written off while blocked, the replacement sender is no longer needed
+                    resizeSenders(-1);
+                }
+            }
+        }
+    }
+
+    //a blocked write holds the emitter's lock, so it cannot be completed from here; the subscriber
+    //is dropped and its sender replaced while there is room, the emitter completes once the write returns
+    private void expireWrites() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : writing) {
+            long started = subscriber.writeStarted.get();
+            if (started > 0 && now - started > sendTimeout.toNanos()
+                    && (replaceSender(subscriber, started) || subscriber.writeStarted.compareAndSet(started, DROPPED))) {
+                log.warn("Availability subscriber stalled for {} ms, disconnecting", sendTimeout.toMillis());
+                evict(subscriber);
+            }
+        }
+    }
+
+    private synchronized boolean replaceSender(Subscriber subscriber, long started) {
+        if (senders.getCorePoolSize() >= senderThreads + MAX_REPLACEMENT_SENDERS
+                || !subscriber.writeStarted.compareAndSet(started, REPLACED)) {
+            return false;
+        }
+        resizeSenders(1);
+        return true;
+    }
+
+    private synchronized void resizeSenders(int delta) {
+        int size = senders.getCorePoolSize() + delta;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    //the emitter is completed by the sender owning the queue, the dispatcher never waits on a slow write
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber.emitter) != null) {
+            evicted.incrementAndGet();
+            subscriber.evicted = true;
+            subscriber.queue.clear();
+            if (subscriber.sending.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
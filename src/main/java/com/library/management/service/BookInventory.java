@@ -0,0 +1,104 @@
+package com.library.management.service;
+
+import com.library.management.entities.Book;
+import com.library.management.entities.BookStock;
+import com.library.management.repository.BookStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Shelf counts of every title. The copies of a book are spread over a few stock rows and a
+ * checkout takes one with a conditional decrement, starting at a random row, so checkouts of a
+ * popular title wait on each other only when they happen to pick the same row.
+ */
+@Component
+public class BookInventory {
+
+    @Autowired
+    BookStockRepository bookStockRepository;
+
+    //false when no copy of the book is on the shelf
+    public boolean takeCopy(int bookId) {
+        List<Integer> stripes = bookStockRepository.findIdsWithCopies(bookId);
+        if (stripes.isEmpty()) {
+            return false;
+        }
+        int start = ThreadLocalRandom.current().nextInt(stripes.size());
+        for (int i = 0; i < stripes.size(); i++) {
+            //a stripe emptied by a parallel checkout since the read just moves us on to the next one
+            if (bookStockRepository.takeCopy(stripes.get((start + i) % stripes.size())) == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Locks every stock row of the book until the caller's transaction ends and returns the copies
+     * on the shelf. Holds and returns take it to decide between the shelf and the waitlist.
+     */
+    public int lock(int bookId) {
+        return bookStockRepository.lockByBookId(bookId).stream().mapToInt(BookStock::getAvailable).sum();
+    }
+
+    public void putBackCopy(int bookId) {
+        List<Integer> stripes = bookStockRepository.findIdsByBookId(bookId);
+        if (stripes.isEmpty()) {
+            throw new IllegalStateException("Book with id " + bookId + " has no stock");
+        }
+        bookStockRepository.putBackCopy(stripes.get(ThreadLocalRandom.current().nextInt(stripes.size())));
+    }
+
+    public static int available(Book book) {
+        return book.getStock().stream().mapToInt(BookStock::getAvailable).sum();
+    }
+
+    /**
+     * Changes how many copies the library owns. Each added copy is offered to handOut first, which
+     * gives it to the next waiting patron and is false when nobody waits, and otherwise goes on the
+     * shelf. Removed copies have to be on the shelf. Runs in the caller's transaction and keeps the
+     * loaded stock in step.
+     */
+    public void resize(Book book, int copies, BooleanSupplier handOut) {
+        if (copies < 1) {
+            throw new IllegalArgumentException("A book needs at least one copy");
+        }
+        int delta = copies - book.getTotalCopies();
+        if (delta == 0) {
+            return;
+        }
+        List<BookStock> stripes = new ArrayList<>(bookStockRepository.lockByBookId(book.getId()));
+        if (delta > 0) {
+            //more copies get more stripes, up to the maximum, each new one starting empty
+            for (int stripe = stripes.size(); stripe < Math.min(copies, Book.MAX_STRIPES); stripe++) {
+                BookStock added = new BookStock(book, stripe, 0);
+                book.getStock().add(added);
+                stripes.add(added);
+            }
+            //patrons already waiting come before the shelf, a walk-up checkout must not jump the line
+            for (int i = stripes.size() - 1; delta > 0; delta--) {
+                if (!handOut.getAsBoolean()) {
+                    i = (i + 1) % stripes.size();
+                    stripes.get(i).setAvailable(stripes.get(i).getAvailable() + 1);
+                }
+            }
+        } else {
+            int onShelf = stripes.stream().mapToInt(BookStock::getAvailable).sum();
+            if (onShelf < -delta) {
+                throw new IllegalArgumentException((book.getTotalCopies() - onShelf) + " copies of '"
+                        + book.getTitle() + "' are on loan, the book cannot have fewer than that");
+            }
+            for (BookStock stripe : stripes) {
+                int taken = Math.min(stripe.getAvailable(), -delta);
+                stripe.setAvailable(stripe.getAvailable() - taken);
+                delta += taken;
+            }
+        }
+        book.setTotalCopies(copies);
+    }
+}
@@ -0,0 +1,211 @@
+package com.library.management.service;
+
+import com.library.management.dto.BookDto;
+import com.library.management.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index over book titles and authors. Every word is indexed by its character
+ * trigrams, so a query word finds candidates sharing most of its trigrams and is then scored by
+ * edit distance, which lets "hary poter" still find "Harry Potter".
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    @Autowired
+    BookRepository bookRepository;
+
+    private final Map<Integer, Set<String>> wordsById = new ConcurrentHashMap<>();
+    private final Map<Integer, String> titlesById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsByTitle = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> idsByTrigram = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<BookDto> books = bookRepository.findAllDtos();
+        synchronized (this) {
+            wordsById.clear();
+            titlesById.clear();
+            idsByTitle.clear();
+            idsByTrigram.clear();
+            books.forEach(book -> put(book.getId(), book.getTitle(), book.getAuthor()));
+        }
+        log.info("Indexed {} books for search in {} ms", books.size(), System.currentTimeMillis() - start);
+    }
+
+    //adds the book or replaces what was indexed for it before
+    public synchronized void put(int id, String title, String author) {
+        remove(id);
+        Set<String> words = new HashSet<>(tokenize(title));
+        words.addAll(tokenize(author));
+        wordsById.put(id, words);
+        titlesById.put(id, title);
+        idsByTitle.put(title, id);
+        for (String word : words) {
+            for (String trigram : trigrams(word)) {
+                idsByTrigram.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+    }
+
+    public synchronized void removeByTitle(String title) {
+        Integer id = idsByTitle.get(title);
+        if (id != null) {
+            remove(id);
+        }
+    }
+
+    public synchronized void removeById(int id) {
+        remove(id);
+    }
+
+    private void remove(int id) {
+        Set<String> words = wordsById.remove(id);
+        if (words == null) {
+            return;
+        }
+        idsByTitle.remove(titlesById.remove(id));
+        for (String word : words) {
+            for (String trigram : trigrams(word)) {
+                Set<Integer> ids = idsByTrigram.get(trigram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        idsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return wordsById.size();
+    }
+
+    /**
+     * Returns the ids of the best matching books, best first. A book scores for every query word
+     * that matches one of its words exactly, by prefix or within the allowed edit distance.
+     */
+    public List<Integer> search(String query, int limit) {
+        List<String> queryWords = tokenize(query);
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String queryWord : queryWords) {
+            int maxEdits = maxEdits(queryWord);
+            Set<String> queryTrigrams = trigrams(queryWord);
+            //a prefix misses only the closing trigram and each edit breaks at most three more
+            int minShared = Math.max(1, queryTrigrams.size() - 1 - 3 * maxEdits);
+            Map<Integer, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                Set<Integer> ids = idsByTrigram.get(trigram);
+                if (ids != null) {
+                    ids.forEach(id -> shared.merge(id, 1, Integer::sum));
+                }
+            }
+            shared.forEach((id, count) -> {
+                if (count < minShared) {
+                    return;
+                }
+                Set<String> words = wordsById.get(id);
+                if (words == null) {
+                    return;
+                }
+                double best = 0;
+                for (String word : words) {
+                    best = Math.max(best, similarity(queryWord, word, maxEdits));
+                }
+                if (best > 0) {
+                    scores.merge(id, best, Double::sum);
+                }
+            });
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static double similarity(String queryWord, String word, int maxEdits) {
+        if (word.equals(queryWord)) {
+            return 1.0;
+        }
+        if (queryWord.length() >= 3 && word.startsWith(queryWord)) {
+            return 0.9;
+        }
+        if (maxEdits == 0 || Math.abs(word.length() - queryWord.length()) > maxEdits) {
+            return 0;
+        }
+        int distance = editDistance(queryWord, word, maxEdits);
+        return distance <= maxEdits ? 0.8 - 0.2 * distance : 0;
+    }
+
+    private static int maxEdits(String word) {
+        if (word.length() <= 3) {
+            return 0;
+        }
+        return word.length() <= 6 ? 1 : 2;
+    }
+
+    //Levenshtein distance that gives up once every path is beyond max
+    static int editDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    static Set<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
@@ -1,40 +1,57 @@
 package com.library.management.service;
 
+import com.library.management.config.ReplicaRead;
 import com.library.management.dto.BookDto;
 import com.library.management.entities.Book;
-import com.library.management.entities.User;
 import com.library.management.exceptionhandler.DuplicateEntryException;
 import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.model.CursorPage;
+import com.library.management.model.PageCursor;
 import com.library.management.repository.BookRepository;
 import com.library.management.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "library.service", histogram = true)
 public class BookService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_SEARCH_RESULTS = 100;
+
     @Autowired
     BookRepository bookRepository;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    BookSearchIndex bookSearchIndex;
+    @Autowired
+    LookupCache lookupCache;
+    @Autowired
+    BookInventory bookInventory;
+    @Autowired
+    HoldService holdService;
+    @Autowired
+    BookEvents bookEvents;
 
     public BookDto convertToBookDto(Book book) {
         BookDto bookDto = new BookDto();
         bookDto.setId(book.getId());
         bookDto.setTitle(book.getTitle());
         bookDto.setAuthor(book.getAuthor());
-        // Check if the User object is null before accessing its properties
-        if (book.getUser() != null) {
-            bookDto.setUser(book.getUser().getUsername());
-            bookDto.setIsIssued(true);
-        } else {
-            bookDto.setUser(null);
-            bookDto.setIsIssued(false);// Or set a default value if necessary
-        }
+        bookDto.setTotalCopies(book.getTotalCopies());
+        bookDto.setAvailableCopies(BookInventory.available(book));
+        bookDto.setIsIssued(bookDto.getAvailableCopies() == 0);
         return bookDto;
     }
 
@@ -47,76 +64,126 @@ public class BookService {
         Book book = new Book();
         book.setTitle(bookDto.getTitle());
         book.setAuthor(bookDto.getAuthor());
-        book.setUser(null);
-        book.setIsIssued(false);
+        if (bookDto.getTotalCopies() != null) {
+            book.setTotalCopies(bookDto.getTotalCopies());
+        }
         bookRepository.save(book);
+        bookSearchIndex.put(book.getId(), book.getTitle(), book.getAuthor());
+        lookupCache.evictBook(book.getTitle());
+        bookEvents.changed(book.getId());
         return convertToBookDto(book);
     }
 
 
+    @ReplicaRead
+    @Cacheable(cacheNames = LookupCache.BOOKS, key = "#name")
     public BookDto getBookByName(String name) {
-        Book book = bookRepository.findByTitle(name);
+        BookDto book = bookRepository.findDtoByTitle(name);
         if (book == null) {
             throw new ResourceNotFoundException("Book not found with name: " + name);
-        } else {
-            return convertToBookDto(book);
         }
+        return book;
     }
 
+    @ReplicaRead
     public List<BookDto> getAllBooks() {
-        List<Book> books = bookRepository.findAll();
-        return books.stream()
-                .map(this::convertToBookDto)
-                .collect(Collectors.toList());
+        return bookRepository.findAllDtos();
+    }
+
+    @ReplicaRead
+    public CursorPage<BookDto> getBooks(String cursor, int size, String sort) {
+        PageCursor after = PageCursor.resolve(cursor, size, MAX_PAGE_SIZE, sort);
+        //fetch one extra row to know whether another page exists
+        Limit limit = Limit.of(size + 1);
+        if (after.getSort().equals("id")) {
+            return CursorPage.of(bookRepository.findDtosAfterId(after.isFirstPage() ? 0 : after.getAfterId(), limit),
+                    size, "id", book -> String.valueOf(book.getId()));
+        } else if (after.getSort().equals("title")) {
+            return CursorPage.of(bookRepository.findDtosAfterTitle(after.isFirstPage() ? "" : after.getAfter(), limit),
+                    size, "title", BookDto::getTitle);
+        }
+        throw new IllegalArgumentException("Sort should be either id or title");
     }
 
+    @ReplicaRead
+    public List<BookDto> searchBooks(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is mandatory");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("Limit should be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        List<Integer> ids = bookSearchIndex.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        //the index only ranks, current state comes from one primary key lookup
+        Map<Integer, BookDto> booksById = new HashMap<>();
+        bookRepository.findDtosByIdIn(ids).forEach(book -> booksById.put(book.getId(), book));
+        List<BookDto> result = new ArrayList<>();
+        for (Integer id : ids) {
+            BookDto book = booksById.get(id);
+            if (book != null) {
+                result.add(book);
+            }
+        }
+        return result;
+    }
+
+    //loans are made through OrderService, an update only changes the title, author and number of copies
+    @Transactional
     public BookDto updateBook(String name, BookDto bookDto) {
         Book bookToUpdate = bookRepository.findByTitle(name);
+        if (bookToUpdate == null) {
+            throw new ResourceNotFoundException("Book not found with name: " + name);
+        }
         bookToUpdate.setTitle(bookDto.getTitle());
         bookToUpdate.setAuthor(bookDto.getAuthor());
-        // If username is not provided, remove existing user association
-        if (bookDto.getUser() == null) {
-            bookToUpdate.setUser(null);
-            bookToUpdate.setIsIssued(false);
-            return convertToBookDto(bookRepository.save(bookToUpdate));
-        } else {
-            // If username is provided
-            User userExist = userRepository.findByUsername(bookDto.getUser());
-            // If user does not exist
-            if (userExist == null) {
-                throw new ResourceNotFoundException("User not found with name: " + bookDto.getUser());
-            }
-            // If user is present
-            //if user is not associated with a book
-            if (userExist != null && userExist.getIssuedBook() == null) {
-                bookToUpdate.setUser(userExist);
-                bookToUpdate.setIsIssued(true);
-                Book savedBook = bookRepository.save(bookToUpdate);
-                userExist.setIssuedBook(savedBook);
-                userRepository.save(userExist);
-                return convertToBookDto(savedBook);
-            }
-            //if user is already associated with another book
-            if (userExist != null && !userExist.getIssuedBook().getTitle().equals(bookDto.getTitle())) {
-                throw new IllegalArgumentException("User '" + userExist.getUsername() + "' already issued a book.");
-            }
-            //if same user provided
-            if (userExist != null && userExist.getIssuedBook().getTitle().equals(bookDto.getTitle())) {
-                bookToUpdate.setUser(userExist);
-                Book savedBook = bookRepository.save(bookToUpdate);
-                userExist.setIssuedBook(savedBook);
-                userRepository.save(userExist);
-                return convertToBookDto(savedBook);
-            }
+        if (bookDto.getTotalCopies() != null) {
+            bookInventory.resize(bookToUpdate, bookDto.getTotalCopies(), () -> holdService.handOut(bookToUpdate.getId()));
+        }
+        BookDto updatedBook = convertToBookDto(bookRepository.save(bookToUpdate));
+        bookSearchIndex.put(bookToUpdate.getId(), bookToUpdate.getTitle(), bookToUpdate.getAuthor());
+        //the old and new title may both be cached
+        lookupCache.evictBook(name);
+        lookupCache.evictBook(bookToUpdate.getTitle());
+        bookEvents.changed(bookToUpdate.getId());
+        if (!name.equals(bookToUpdate.getTitle())) {
+            //borrowers show the title of their book
+            userRepository.findUsernamesByIssuedBookId(bookToUpdate.getId()).forEach(lookupCache::evictUser);
         }
-        return convertToBookDto(bookToUpdate);
+        return updatedBook;
     }
 
+    @Transactional
     public void deleteByName(String name) {
+        Book book = bookRepository.findByTitle(name);
+        if (book != null) {
+            releaseHolders(book.getId());
+            bookEvents.changed(book.getId());
+        }
         bookRepository.removeByTitle(name);
+        bookSearchIndex.removeByTitle(name);
+        lookupCache.evictBook(name);
     }
 
+    @Transactional
     public void deleteById(int id) {
+        Optional<Book> book = bookRepository.findById(id);
+        releaseHolders(id);
         bookRepository.deleteById(id);
+        bookSearchIndex.removeById(id);
+        book.ifPresent(deleted -> lookupCache.evictBook(deleted.getTitle()));
+        bookEvents.changed(id);
+    }
+
+    //loans and waitlist places on the book end with it
+    private void releaseHolders(int bookId) {
+        holdService.forgetBook(bookId);
+        List<String> holders = userRepository.findUsernamesByIssuedBookId(bookId);
+        if (!holders.isEmpty()) {
+            userRepository.releaseAllHolding(bookId);
+            holders.forEach(lookupCache::evictUser);
+        }
     }
 }
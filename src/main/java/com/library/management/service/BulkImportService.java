@@ -0,0 +1,203 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BulkImportResultDto;
+import com.library.management.dto.BulkRowErrorDto;
+import com.library.management.entities.Book;
+import com.library.management.entities.User;
+import com.library.management.exceptionhandler.ServiceBusyException;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Loads books and users from CSV or JSON lines. Rows are read and written one batch at a time:
+ * duplicates are found with a single IN query per batch, inserts go out as JDBC batches and the
+ * persistence context is cleared after every batch, so memory stays flat however large the file.
+ * Each batch commits on its own and every rejected row is listed in the result; a batch that fails
+ * is written again row by row so only the rows at fault are rejected.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    PasswordHashingService passwordHashingService;
+    @Autowired
+    BookSearchIndex bookSearchIndex;
+    @Autowired
+    LookupCache lookupCache;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${library.bulk.batch-size:1000}")
+    int batchSize;
+
+    //CSV header: title,author
+    public BulkImportResultDto importBooks(InputStream in, String contentType) throws IOException {
+        long start = System.currentTimeMillis();
+        BulkRowReader reader = new BulkRowReader(in, contentType, objectMapper);
+        BulkImportResultDto result = new BulkImportResultDto();
+        List<BulkRowReader.Row> rows;
+        while (!(rows = reader.nextBatch(batchSize)).isEmpty()) {
+            Map<String, BulkRowReader.Row> accepted = accept(rows, "title", "Title is mandatory", result);
+            for (String title : bookRepository.findTitlesIn(accepted.keySet())) {
+                reject(accepted.remove(title), title, "Book with title '" + title + "' already exists.", result);
+            }
+            if (accepted.isEmpty()) {
+                continue;
+            }
+            List<Book> books = persist(accepted, (title, row) -> {
+                Book book = new Book();
+                book.setTitle(title);
+                book.setAuthor(row.get("author"));
+                return book;
+            }, result);
+            //a title deleted earlier may still have a cached miss or an old version
+            books.forEach(book -> {
+                bookSearchIndex.put(book.getId(), book.getTitle(), book.getAuthor());
+                lookupCache.evictBook(book.getTitle());
+            });
+        }
+        return finish(result, start, "books");
+    }
+
+    //CSV header: username,password
+    public BulkImportResultDto importUsers(InputStream in, String contentType) throws IOException {
+        long start = System.currentTimeMillis();
+        BulkRowReader reader = new BulkRowReader(in, contentType, objectMapper);
+        BulkImportResultDto result = new BulkImportResultDto();
+        List<BulkRowReader.Row> rows;
+        while (!(rows = reader.nextBatch(batchSize)).isEmpty()) {
+            Map<String, BulkRowReader.Row> accepted = accept(rows, "username", "Username is mandatory", result);
+            accepted.entrySet().removeIf(entry -> {
+                if (entry.getValue().get("password") == null) {
+                    reject(entry.getValue(), entry.getKey(), "Password is mandatory", result);
+                    return true;
+                }
+                return false;
+            });
+            for (String username : userRepository.findUsernamesIn(accepted.keySet())) {
+                reject(accepted.remove(username), username, "User with name '" + username + "' already exists.", result);
+            }
+            if (accepted.isEmpty()) {
+                continue;
+            }
+            List<String> hashes;
+            try {
+                hashes = passwordHashingService.encodeAll(
+                        accepted.values().stream().map(row -> row.get("password")).toList());
+            } catch (ServiceBusyException ex) {
+                accepted.forEach((username, row) -> reject(row, username, ex.getMessage(), result));
+                continue;
+            }
+            Map<String, String> hashByUsername = new HashMap<>();
+            Iterator<String> hash = hashes.iterator();
+            accepted.keySet().forEach(username -> hashByUsername.put(username, hash.next()));
+            List<User> users = persist(accepted, (username, row) -> {
+                User user = new User();
+                user.setUsername(username);
+                user.setPassword(hashByUsername.get(username));
+                user.setRole("USER");
+                return user;
+            }, result);
+            users.forEach(user -> lookupCache.evictUser(user.getUsername()));
+        }
+        return finish(result, start, "users");
+    }
+
+    //keeps the first row for every key, in file order
+    private Map<String, BulkRowReader.Row> accept(List<BulkRowReader.Row> rows, String keyColumn, String missingKey,
+                                                  BulkImportResultDto result) {
+        Map<String, BulkRowReader.Row> accepted = new LinkedHashMap<>();
+        for (BulkRowReader.Row row : rows) {
+            result.setReceived(result.getReceived() + 1);
+            String key = row.error == null ? row.get(keyColumn) : null;
+            if (row.error != null) {
+                reject(row, null, row.error, result);
+            } else if (key == null) {
+                reject(row, null, missingKey, result);
+            } else if (accepted.putIfAbsent(key, row) != null) {
+                reject(row, key, "Duplicate of an earlier row in this import", result);
+            }
+        }
+        return accepted;
+    }
+
+    //returns the entities written; when the batch fails its rows are retried one per transaction, so
+    //only the rows that fail on their own are rejected, each with its own cause
+    private <E> List<E> persist(Map<String, BulkRowReader.Row> accepted,
+                                BiFunction<String, BulkRowReader.Row, E> build, BulkImportResultDto result) {
+        List<E> entities = new ArrayList<>(accepted.size());
+        accepted.forEach((key, row) -> entities.add(build.apply(key, row)));
+        try {
+            insert(entities);
+            result.setImported(result.getImported() + entities.size());
+            return entities;
+        } catch (DataAccessException | PersistenceException ex) {
+            //typically a row inserted by someone else since the duplicate check or a value the column cannot hold
+            log.warn("Bulk import batch of {} rows failed, retrying row by row: {}", entities.size(),
+                    NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+        }
+        List<E> written = new ArrayList<>(accepted.size());
+        accepted.forEach((key, row) -> {
+            //the rolled back batch left ids on its entities, a fresh one is persisted as new
+            E entity = build.apply(key, row);
+            try {
+                insert(List.of(entity));
+                result.setImported(result.getImported() + 1);
+                written.add(entity);
+            } catch (DataAccessException | PersistenceException ex) {
+                reject(row, key, NestedExceptionUtils.getMostSpecificCause(ex).getMessage(), result);
+            }
+        });
+        return written;
+    }
+
+    private void insert(List<?> entities) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            entities.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private void reject(BulkRowReader.Row row, String key, String message, BulkImportResultDto result) {
+        result.setFailed(result.getFailed() + 1);
+        result.getErrors().add(new BulkRowErrorDto(row.line, key, message));
+    }
+
+    private BulkImportResultDto finish(BulkImportResultDto result, long start, String what) {
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Bulk imported {} of {} {} in {} ms", result.getImported(), result.getReceived(), what,
+                result.getElapsedMillis());
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads an upload one line at a time, so only the current batch is ever held in memory. CSV
+ * needs a header row naming the columns; JSON lines carry one object per line. Quoted CSV
+ * fields may contain commas and doubled quotes but not line breaks.
+ */
+class BulkRowReader {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    static class Row {
+        final long line;
+        final Map<String, String> values;
+        //set when the line itself could not be parsed
+        final String error;
+
+        Row(long line, Map<String, String> values, String error) {
+            this.line = line;
+            this.values = values;
+            this.error = error;
+        }
+
+        String get(String column) {
+            String value = values.get(column);
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long line;
+
+    BulkRowReader(InputStream in, String contentType, ObjectMapper objectMapper) {
+        String type = contentType == null ? "" : contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        if (type.equals(BulkImportService.CSV)) {
+            csv = true;
+        } else if (type.equals(BulkImportService.NDJSON)) {
+            csv = false;
+        } else {
+            throw new IllegalArgumentException("Bulk import accepts " + BulkImportService.CSV + " or "
+                    + BulkImportService.NDJSON + ", not '" + contentType + "'");
+        }
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    //up to size rows, empty once the upload is exhausted
+    List<Row> nextBatch(int size) throws IOException {
+        List<Row> rows = new ArrayList<>(size);
+        String text;
+        while (rows.size() < size && (text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (csv && header == null) {
+                header = new ArrayList<>();
+                for (String column : splitCsv(text)) {
+                    header.add(column.trim().toLowerCase(Locale.ROOT));
+                }
+                continue;
+            }
+            rows.add(csv ? csvRow(text) : jsonRow(text));
+        }
+        return rows;
+    }
+
+    private Row csvRow(String text) {
+        List<String> fields = splitCsv(text);
+        if (fields == null) {
+            return new Row(line, Map.of(), "Unterminated quoted field");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < header.size() && i < fields.size(); i++) {
+            values.put(header.get(i), fields.get(i));
+        }
+        return new Row(line, values, null);
+    }
+
+    private Row jsonRow(String text) {
+        try {
+            Map<String, Object> object = objectMapper.readValue(text, JSON_OBJECT);
+            Map<String, String> values = new HashMap<>();
+            object.forEach((key, value) -> {
+                if (value != null) {
+                    values.put(key.toLowerCase(Locale.ROOT), value.toString());
+                }
+            });
+            return new Row(line, values, null);
+        } catch (JsonProcessingException ex) {
+            return new Row(line, Map.of(), "Invalid JSON object");
+        }
+    }
+
+    //null when a quote is left open
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
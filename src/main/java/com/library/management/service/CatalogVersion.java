@@ -0,0 +1,91 @@
+package com.library.management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the book catalog, of every book and of every user, behind the ETag and Last-Modified
+ * headers of conditional GETs. Callers bump them after the commit of each write, LookupCache right
+ * after evicting the lookup, so a version read before a query is never newer than what the query
+ * returns. Only recently bumped books and users keep a version of their own, the others answer with
+ * the newest one of their kind, which is never older than theirs.
+ */
+@Component
+public class CatalogVersion {
+
+    @Getter
+    @AllArgsConstructor
+    public static class Stamp {
+        private final String eTag;
+        private final long lastModified;
+    }
+
+    @Value("${library.conditional.max-keys:10000}")
+    private long maxKeys;
+
+    //versions restart from the boot time, ETags handed out before a restart never match again
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong versions = new AtomicLong();
+    //Last-Modified has whole seconds, every bump takes a later second than the one before so
+    //If-Modified-Since never matches a newer version
+    private long lastModified = epoch / 1000 * 1000;
+    private final Stamp initial = stamp(0, lastModified);
+    private volatile Stamp catalog = initial;
+    private volatile Stamp newestUser = initial;
+    private Cache<String, Stamp> books;
+    private Cache<String, Stamp> users;
+
+    @PostConstruct
+    public void init() {
+        books = Caffeine.newBuilder().maximumSize(maxKeys).build();
+        users = Caffeine.newBuilder().maximumSize(maxKeys).build();
+    }
+
+    public Stamp catalog() {
+        return catalog;
+    }
+
+    //every book bump also moves the catalog, so it stands in for a book that has no version of its own
+    public Stamp book(String title) {
+        Stamp stamp = books.getIfPresent(title);
+        return stamp != null ? stamp : catalog;
+    }
+
+    public Stamp user(String username) {
+        Stamp stamp = users.getIfPresent(username);
+        return stamp != null ? stamp : newestUser;
+    }
+
+    //a book change also changes every catalog page
+    public synchronized void bumpBook(String title) {
+        Stamp next = next();
+        books.put(title, next);
+        catalog = next;
+    }
+
+    public synchronized void bumpCatalog() {
+        catalog = next();
+    }
+
+    public synchronized void bumpUser(String username) {
+        Stamp next = next();
+        users.put(username, next);
+        newestUser = next;
+    }
+
+    private Stamp next() {
+        lastModified = Math.max(lastModified + 1000, System.currentTimeMillis() / 1000 * 1000);
+        return stamp(versions.incrementAndGet(), lastModified);
+    }
+
+    private Stamp stamp(long version, long lastModified) {
+        return new Stamp("\"" + Long.toString(epoch, 36) + "-" + version + "\"", lastModified);
+    }
+}
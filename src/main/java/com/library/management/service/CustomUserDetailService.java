@@ -1,26 +1,40 @@
 package com.library.management.service;
 
-import com.library.management.entities.User;
 import com.library.management.model.CustomUserDetail;
 import com.library.management.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomUserDetailService implements UserDetailsService {
+@Timed(value = "library.service", histogram = true)
+public class CustomUserDetailService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private LookupCache lookupCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        User user = this.userRepository.findByUsername(username);
+        CustomUserDetail user = this.userRepository.findPrincipalByUsername(username);
         if (user == null){
             throw new UsernameNotFoundException("No User");
         }
-        return new CustomUserDetail(user);
+        return user;
+    }
+
+    //called after a successful login whose stored hash used another BCrypt cost
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        CustomUserDetail principal = (CustomUserDetail) user;
+        this.userRepository.updatePassword(principal.getId(), newPassword);
+        lookupCache.evictPrincipal(principal.getUsername());
+        return new CustomUserDetail(principal.getId(), principal.getUsername(), newPassword, principal.getRole());
     }
 }
@@ -0,0 +1,154 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.config.ReplicaRead;
+import com.library.management.dto.BookDto;
+import com.library.management.dto.GetUserDto;
+import com.library.management.dto.OrderDto;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.OrderRepository;
+import com.library.management.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables for reporting. Rows come from a forward-only cursor as DTO projections,
+ * which Hibernate does not keep in the persistence context, and go out as they are read, so
+ * memory use does not grow with the table.
+ */
+@Service
+@Timed(value = "library.service", histogram = true)
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    public static final String CSV = BulkImportService.CSV;
+    public static final String NDJSON = BulkImportService.NDJSON;
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Map<String, Function<BookDto, Object>> BOOK_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<GetUserDto, Object>> USER_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<OrderDto, Object>> ORDER_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        BOOK_COLUMNS.put("id", BookDto::getId);
+        BOOK_COLUMNS.put("title", BookDto::getTitle);
+        BOOK_COLUMNS.put("author", BookDto::getAuthor);
+        BOOK_COLUMNS.put("totalCopies", BookDto::getTotalCopies);
+        BOOK_COLUMNS.put("availableCopies", BookDto::getAvailableCopies);
+        USER_COLUMNS.put("id", GetUserDto::getId);
+        USER_COLUMNS.put("username", GetUserDto::getUsername);
+        USER_COLUMNS.put("role", GetUserDto::getRole);
+        USER_COLUMNS.put("issuedBook", GetUserDto::getIssuedBook);
+        ORDER_COLUMNS.put("orderId", OrderDto::getOrderId);
+        ORDER_COLUMNS.put("username", OrderDto::getUsername);
+        ORDER_COLUMNS.put("bookId", OrderDto::getBookId);
+        ORDER_COLUMNS.put("title", OrderDto::getTitle);
+        ORDER_COLUMNS.put("orderDate", OrderDto::getOrderDate);
+        ORDER_COLUMNS.put("orderType", OrderDto::getOrderType);
+    }
+
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    //fails before anything is written, so a bad request still gets a 400
+    public String contentType(String table, String format) {
+        if (!table.equals("books") && !table.equals("users") && !table.equals("orders")) {
+            throw new IllegalArgumentException("Export should be one of books, users or orders");
+        }
+        if (format.equals("csv")) {
+            return CSV;
+        }
+        if (format.equals("ndjson")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Format should be either ndjson or csv");
+    }
+
+    //returns the number of rows written, the stream is flushed but left open
+    @ReplicaRead
+    public long export(String table, String format, OutputStream out) {
+        contentType(table, format);
+        long start = System.currentTimeMillis();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Long rows = readOnly.execute(status -> switch (table) {
+            case "books" -> write(bookRepository.streamAllDtos(), BOOK_COLUMNS, format, out);
+            case "users" -> write(userRepository.streamAllDtos(), USER_COLUMNS, format, out);
+            default -> write(orderRepository.streamAllDtos(), ORDER_COLUMNS, format, out);
+        });
+        log.info("Exported {} {} as {} in {} ms", rows, table, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private <T> long write(Stream<T> rows, Map<String, Function<T, Object>> columns, String format, OutputStream out) {
+        long count = 0;
+        try (rows) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            if (format.equals("csv")) {
+                writer.write(String.join(",", columns.keySet()));
+                writer.write('\n');
+                for (Iterator<T> it = rows.iterator(); it.hasNext(); count++) {
+                    T row = it.next();
+                    int column = 0;
+                    for (Function<T, Object> value : columns.values()) {
+                        if (column++ > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(csvField(value.apply(row)));
+                    }
+                    writer.write('\n');
+                }
+            } else {
+                JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+                //one object per line instead of the default space between root values
+                json.setRootValueSeparator(null);
+                for (Iterator<T> it = rows.iterator(); it.hasNext(); count++) {
+                    json.writeObject(it.next());
+                    json.writeRaw('\n');
+                }
+                json.flush();
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            //the client went away, the cursor is closed on the way out
+            throw new UncheckedIOException(ex);
+        }
+        return count;
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
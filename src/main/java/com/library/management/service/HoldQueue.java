@@ -0,0 +1,137 @@
+package com.library.management.service;
+
+import com.library.management.dto.HoldDto;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the hold table that answers "where am I in line" without a query. Every
+ * waiting patron gets a ticket and the queue counts how many tickets left from the front, so a
+ * position is one subtraction. Only a cancellation from the middle renumbers the patrons behind.
+ * HoldService updates it after each commit and rebuilds it from the table on startup.
+ */
+@Component
+public class HoldQueue {
+
+    private static final class BookQueue {
+        //waiting patrons in FIFO order with their ticket
+        final LinkedHashMap<Integer, Long> waiting = new LinkedHashMap<>();
+        long served;
+        long nextTicket;
+        //patrons a returned copy is kept for, with their pickup deadline
+        final Map<Integer, LocalDateTime> ready = new HashMap<>();
+    }
+
+    private final Map<Integer, BookQueue> queuesByBook = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Integer>> booksByUser = new ConcurrentHashMap<>();
+
+    public void join(int bookId, int userId) {
+        BookQueue queue = queuesByBook.computeIfAbsent(bookId, id -> new BookQueue());
+        synchronized (queue) {
+            if (!queue.waiting.containsKey(userId) && !queue.ready.containsKey(userId)) {
+                queue.waiting.put(userId, queue.nextTicket++);
+            }
+        }
+        booksByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(bookId);
+    }
+
+    //moves the patron from the line to pickup
+    public void promote(int bookId, int userId, LocalDateTime readyUntil) {
+        BookQueue queue = queuesByBook.computeIfAbsent(bookId, id -> new BookQueue());
+        synchronized (queue) {
+            removeWaiting(queue, userId);
+            queue.ready.put(userId, readyUntil);
+        }
+        booksByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(bookId);
+    }
+
+    public void leave(int bookId, int userId) {
+        BookQueue queue = queuesByBook.get(bookId);
+        if (queue != null) {
+            synchronized (queue) {
+                removeWaiting(queue, userId);
+                queue.ready.remove(userId);
+            }
+        }
+        leaveUser(userId, bookId);
+    }
+
+    public void forgetBook(int bookId) {
+        BookQueue queue = queuesByBook.remove(bookId);
+        if (queue == null) {
+            return;
+        }
+        synchronized (queue) {
+            queue.waiting.keySet().forEach(userId -> leaveUser(userId, bookId));
+            queue.ready.keySet().forEach(userId -> leaveUser(userId, bookId));
+        }
+    }
+
+    public void clear() {
+        queuesByBook.clear();
+        booksByUser.clear();
+    }
+
+    //null when the patron holds no place for the book
+    public HoldDto get(int bookId, int userId) {
+        BookQueue queue = queuesByBook.get(bookId);
+        if (queue == null) {
+            return null;
+        }
+        synchronized (queue) {
+            LocalDateTime readyUntil = queue.ready.get(userId);
+            if (readyUntil != null) {
+                return new HoldDto(bookId, 0, readyUntil);
+            }
+            Long ticket = queue.waiting.get(userId);
+            return ticket == null ? null : new HoldDto(bookId, (int) (ticket - queue.served + 1), null);
+        }
+    }
+
+    public List<HoldDto> getByUser(int userId) {
+        List<HoldDto> holds = new ArrayList<>();
+        for (Integer bookId : booksByUser.getOrDefault(userId, Set.of())) {
+            HoldDto hold = get(bookId, userId);
+            if (hold != null) {
+                holds.add(hold);
+            }
+        }
+        holds.sort(Comparator.comparingInt(HoldDto::getPosition));
+        return holds;
+    }
+
+    public int waitingCount(int bookId) {
+        BookQueue queue = queuesByBook.get(bookId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.waiting.size();
+        }
+    }
+
+    private void leaveUser(int userId, int bookId) {
+        Set<Integer> books = booksByUser.get(userId);
+        if (books != null) {
+            books.remove(bookId);
+        }
+    }
+
+    private static void removeWaiting(BookQueue queue, int userId) {
+        Long ticket = queue.waiting.remove(userId);
+        if (ticket == null) {
+            return;
+        }
+        if (ticket == queue.served) {
+            //the front of the line, the remaining tickets stay valid
+            queue.served++;
+            return;
+        }
+        //everybody behind moves up one place
+        queue.waiting.replaceAll((id, behind) -> behind > ticket ? behind - 1 : behind);
+        queue.nextTicket--;
+    }
+}
@@ -0,0 +1,278 @@
+package com.library.management.service;
+
+import com.library.management.dto.HoldDto;
+import com.library.management.entities.Book;
+import com.library.management.entities.Hold;
+import com.library.management.entities.User;
+import com.library.management.exceptionhandler.DuplicateEntryException;
+import com.library.management.exceptionhandler.MultipleIssuedException;
+import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.HoldRepository;
+import com.library.management.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Waitlists for books with no copy on the shelf. A returned copy goes to the patron who has
+ * waited longest and is kept for them for the pickup window; an expired pickup passes the copy
+ * on to the next patron, or back to the shelf when nobody is waiting. The holds table decides
+ * who gets a copy, HoldQueue mirrors it for position lookups. Placing a hold and passing a copy
+ * on both take the book's stock lock, so no copy sits on the shelf while a patron waits.
+ */
+@Service
+@Timed(value = "library.service", histogram = true)
+public class HoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldService.class);
+
+    //waiting holds read per return, enough to get past a few that a parallel return just promoted
+    private static final int CANDIDATES = 5;
+
+    @Autowired
+    HoldRepository holdRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    BookInventory bookInventory;
+    @Autowired
+    HoldQueue holdQueue;
+    @Autowired
+    LookupCache lookupCache;
+    @Autowired
+    BookEvents bookEvents;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${library.holds.pickup-window:PT48H}")
+    private Duration pickupWindow;
+
+    //one thread for all pickup deadlines, cancelled deadlines are removed from its queue at once
+    private ScheduledThreadPoolExecutor expiries;
+    private final Map<Integer, ScheduledFuture<?>> expiriesByHold = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        expiries = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiries.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        expiries.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Hold> holds = holdRepository.findAllInOrder();
+        holdQueue.clear();
+        for (Hold hold : holds) {
+            int userId = hold.getUser().getId();
+            int bookId = hold.getBook().getId();
+            if (hold.getReadyUntil() == null) {
+                holdQueue.join(bookId, userId);
+            } else {
+                holdQueue.promote(bookId, userId, hold.getReadyUntil());
+                scheduleExpiry(hold.getId(), bookId, userId, hold.getReadyUntil());
+            }
+        }
+        log.info("Loaded {} holds", holds.size());
+    }
+
+    @Transactional
+    public HoldDto placeHold(int userId, int bookId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+        if (user.getIssuedBook() != null && user.getIssuedBook().getId() == bookId) {
+            throw new MultipleIssuedException("User already issued this book");
+        }
+        if (holdRepository.findByUserIdAndBookId(userId, bookId) != null) {
+            throw new DuplicateEntryException("User is already on the waitlist for book with id " + bookId);
+        }
+        int onShelf = bookInventory.lock(bookId);
+        if (onShelf > 0 && holdRepository.findWaiting(bookId, Limit.of(1)).isEmpty()) {
+            throw new IllegalArgumentException("A copy of the book with id " + bookId + " is available, issue it instead");
+        }
+        Hold placed = holdRepository.save(new Hold(user, book, LocalDateTime.now()));
+        TransactionHooks.afterCommit(() -> holdQueue.join(bookId, userId));
+        //a copy shelved before this lock while others waited goes to the line, which may be this patron
+        int promoted = 0;
+        boolean ready = false;
+        LocalDateTime readyUntil = LocalDateTime.now().plus(pickupWindow);
+        for (; onShelf > 0 && bookInventory.takeCopy(bookId); onShelf--) {
+            Integer holdId = promoteNext(bookId, readyUntil);
+            if (holdId == null) {
+                bookInventory.putBackCopy(bookId);
+                break;
+            }
+            ready |= holdId == placed.getId();
+            promoted++;
+        }
+        if (ready) {
+            return new HoldDto(bookId, 0, readyUntil);
+        }
+        return new HoldDto(bookId, holdQueue.waitingCount(bookId) - promoted + 1, null);
+    }
+
+    public HoldDto getHold(int userId, int bookId) {
+        HoldDto hold = holdQueue.get(bookId, userId);
+        if (hold == null) {
+            throw new ResourceNotFoundException("No hold on book with id: " + bookId);
+        }
+        return hold;
+    }
+
+    public List<HoldDto> getHolds(int userId) {
+        return holdQueue.getByUser(userId);
+    }
+
+    @Transactional
+    public void cancelHold(int userId, int bookId) {
+        Hold hold = holdRepository.findByUserIdAndBookId(userId, bookId);
+        if (hold == null || !remove(hold, userId, bookId)) {
+            throw new ResourceNotFoundException("No hold on book with id: " + bookId);
+        }
+    }
+
+    /**
+     * Ends the patron's hold on the book as part of a checkout. True when a returned copy was
+     * being kept for them, the checkout then takes that copy instead of one from the shelf.
+     */
+    public boolean claim(int userId, int bookId) {
+        Hold hold = holdRepository.findByUserIdAndBookId(userId, bookId);
+        if (hold == null) {
+            return false;
+        }
+        //a waiting hold is deleted before asking for a ready one, so a promotion in between is not missed
+        if (holdRepository.deleteWaiting(hold.getId()) == 1) {
+            TransactionHooks.afterCommit(() -> holdQueue.leave(bookId, userId));
+            return false;
+        }
+        if (holdRepository.deleteReady(hold.getId()) == 1) {
+            TransactionHooks.afterCommit(() -> {
+                holdQueue.leave(bookId, userId);
+                cancelExpiry(hold.getId());
+            });
+            return true;
+        }
+        return false;
+    }
+
+    //gives a copy that came back to the next patron in line, or puts it on the shelf
+    public void passOn(int bookId) {
+        //the lock placeHold takes, a hold placed meanwhile is either found here or finds the copy
+        bookInventory.lock(bookId);
+        if (handOut(bookId)) {
+            return;
+        }
+        bookInventory.putBackCopy(bookId);
+        //the shelf count shown for the book changed
+        bookRepository.findById(bookId).ifPresent(book -> lookupCache.evictBook(book.getTitle()));
+        bookEvents.changed(bookId);
+    }
+
+    //gives a copy that is not on the shelf to the next waiting patron, false when nobody waits
+    public boolean handOut(int bookId) {
+        return promoteNext(bookId, LocalDateTime.now().plus(pickupWindow)) != null;
+    }
+
+    //the id of the hold the copy is now kept for, null when nobody waits
+    private Integer promoteNext(int bookId, LocalDateTime readyUntil) {
+        for (Hold next : holdRepository.findWaiting(bookId, Limit.of(CANDIDATES))) {
+            if (holdRepository.markReady(next.getId(), readyUntil) == 1) {
+                int holdId = next.getId();
+                int userId = next.getUser().getId();
+                TransactionHooks.afterCommit(() -> {
+                    holdQueue.promote(bookId, userId, readyUntil);
+                    scheduleExpiry(holdId, bookId, userId, readyUntil);
+                });
+                return holdId;
+            }
+        }
+        return null;
+    }
+
+    //a deleted account gives up its places, a copy kept for it goes to the next patron
+    public void releaseHoldsOf(int userId) {
+        for (Hold hold : holdRepository.findByUserId(userId)) {
+            remove(hold, userId, hold.getBook().getId());
+        }
+    }
+
+    //the holds go with the book, its copies are gone too
+    public void forgetBook(int bookId) {
+        holdRepository.deleteByBookId(bookId);
+        TransactionHooks.afterCommit(() -> holdQueue.forgetBook(bookId));
+    }
+
+    private boolean remove(Hold hold, int userId, int bookId) {
+        if (holdRepository.deleteWaiting(hold.getId()) == 1) {
+            TransactionHooks.afterCommit(() -> holdQueue.leave(bookId, userId));
+            return true;
+        }
+        if (holdRepository.deleteReady(hold.getId()) == 1) {
+            passOn(bookId);
+            TransactionHooks.afterCommit(() -> {
+                holdQueue.leave(bookId, userId);
+                cancelExpiry(hold.getId());
+            });
+            return true;
+        }
+        return false;
+    }
+
+    private void scheduleExpiry(int holdId, int bookId, int userId, LocalDateTime readyUntil) {
+        long delayMillis = Math.max(0, Duration.between(LocalDateTime.now(), readyUntil).toMillis());
+        expiriesByHold.put(holdId, expiries.schedule(() -> expire(holdId, bookId, userId),
+                delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private void cancelExpiry(int holdId) {
+        ScheduledFuture<?> expiry = expiriesByHold.remove(holdId);
+        if (expiry != null) {
+            expiry.cancel(false);
+        }
+    }
+
+    private void expire(int holdId, int bookId, int userId) {
+        expiriesByHold.remove(holdId);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                //0 when the patron picked the copy up or cancelled while this was due
+                if (holdRepository.deleteExpired(holdId, LocalDateTime.now()) == 1) {
+                    passOn(bookId);
+                    TransactionHooks.afterCommit(() -> holdQueue.leave(bookId, userId));
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.error("Could not expire hold {}, retrying in a minute", holdId, ex);
+            expiriesByHold.put(holdId, expiries.schedule(() -> expire(holdId, bookId, userId), 1, TimeUnit.MINUTES));
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.library.management.service;
+
+import com.library.management.dto.LedgerStatsDto;
+import com.library.management.entities.Book;
+import com.library.management.entities.Order;
+import com.library.management.entities.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records every issue and return as an Order row. In sync mode the row is written inside the
+ * caller's transaction. In group-commit mode the event is queued once that transaction commits
+ * and a background writer inserts queued events in JDBC batches, so a crash can lose at most
+ * the last flush interval of history but checkouts never wait for the ledger insert. A failed
+ * batch is written again one event per transaction, so only an event that can never be written,
+ * such as one for a user deleted since the loan, is dropped; the rest waits for another attempt.
+ */
+@Component
+public class LoanLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanLedger.class);
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    public static final String ISSUED = "Issued";
+    public static final String RETURNED = "Returned";
+
+    private static final class LoanEvent {
+        final int userId;
+        final int bookId;
+        final LocalDateTime date;
+        final String type;
+
+        LoanEvent(int userId, int bookId, LocalDateTime date, String type) {
+            this.userId = userId;
+            this.bookId = bookId;
+            this.date = date;
+            this.type = type;
+        }
+    }
+
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    //sync or group-commit
+    @Value("${library.ledger.mode:sync}")
+    private String mode;
+    @Value("${library.ledger.queue-capacity:10000}")
+    private int queueCapacity;
+    @Value("${library.ledger.batch-size:500}")
+    private int batchSize;
+    @Value("${library.ledger.flush-interval-ms:50}")
+    private long flushIntervalMillis;
+
+    private BlockingQueue<LoanEvent> queue;
+    //events whose write failed for a reason other than the row itself, tried again before new ones
+    private final ConcurrentLinkedQueue<LoanEvent> retries = new ConcurrentLinkedQueue<>();
+    private Thread writer;
+    private volatile boolean running;
+    //queued or being written
+    private final AtomicLong pending = new AtomicLong();
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (!mode.equals("sync") && !mode.equals("group-commit")) {
+            throw new IllegalStateException("library.ledger.mode should be either sync or group-commit");
+        }
+        if (!isGroupCommit()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::drain, "loan-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    //lets the writer empty the queue before the datasource goes away
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (!queue.isEmpty() || !retries.isEmpty()) {
+            log.warn("Loan ledger stopped with {} events not written", queue.size() + retries.size());
+        }
+    }
+
+    /**
+     * Builds the Order row for the event. In group-commit mode the row is written later and the
+     * returned Order has no id yet.
+     */
+    public Order record(User user, Book book, String type) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setBook(book);
+        order.setOrderDate(LocalDateTime.now());
+        order.setOrderType(type);
+        if (!isGroupCommit()) {
+            entityManager.persist(order);
+            written.increment();
+            return order;
+        }
+        LoanEvent event = new LoanEvent(user.getId(), book.getId(), order.getOrderDate(), type);
+        //a rolled back checkout must not leave a ledger entry
+        TransactionHooks.afterCommit(() -> enqueue(event));
+        return order;
+    }
+
+    private void enqueue(LoanEvent event) {
+        pending.incrementAndGet();
+        if (!running) {
+            //the writer is gone, nothing would drain the queue
+            writeNow(event);
+        } else if (!queue.offer(event)) {
+            //never drop history, a full queue only costs this request the insert
+            fallbacks.increment();
+            writeNow(event);
+        } else if (!running && queue.remove(event)) {
+            //stopped between the check and the offer, and the writer did not take it
+            writeNow(event);
+        }
+    }
+
+    private void writeNow(LoanEvent event) {
+        if (!write(List.of(event)).isEmpty()) {
+            retries.add(event);
+            if (!running) {
+                log.error("Loan ledger is stopped, {} event of user {} for book {} not written",
+                        event.type, event.userId, event.bookId);
+            }
+        }
+    }
+
+    private void drain() {
+        List<LoanEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !retries.isEmpty()) {
+            try {
+                LoanEvent retry;
+                while (batch.size() < batchSize && (retry = retries.poll()) != null) {
+                    batch.add(retry);
+                }
+                if (batch.isEmpty()) {
+                    LoanEvent first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                List<LoanEvent> unwritten = write(batch);
+                if (!unwritten.isEmpty()) {
+                    retries.addAll(unwritten);
+                    //the database is likely unavailable, give it a moment
+                    Thread.sleep(running ? RETRY_DELAY_MILLIS : 0);
+                    if (!running) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    //returns the events still to be written, the ones after a failure that was not about the row itself
+    private List<LoanEvent> write(List<LoanEvent> events) {
+        try {
+            insert(events);
+            written.add(events.size());
+            batches.increment();
+            pending.addAndGet(-events.size());
+            return List.of();
+        } catch (RuntimeException ex) {
+            log.warn("Loan ledger batch of {} events failed, writing them one at a time: {}", events.size(),
+                    ex.getMessage());
+        }
+        for (int i = 0; i < events.size(); i++) {
+            LoanEvent event = events.get(i);
+            try {
+                insert(List.of(event));
+                written.increment();
+            } catch (RuntimeException ex) {
+                if (!isConstraintViolation(ex)) {
+                    log.error("Could not write {} loan ledger events, keeping them for a retry",
+                            events.size() - i, ex);
+                    return new ArrayList<>(events.subList(i, events.size()));
+                }
+                //this row can never be written, the others go on
+                failed.increment();
+                log.error("Dropping {} ledger event of user {} for book {}", event.type, event.userId, event.bookId, ex);
+            }
+            pending.decrementAndGet();
+        }
+        return List.of();
+    }
+
+    private void insert(List<LoanEvent> events) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (LoanEvent event : events) {
+                Order order = new Order();
+                order.setUser(entityManager.getReference(User.class, event.userId));
+                order.setBook(entityManager.getReference(Book.class, event.bookId));
+                order.setOrderDate(event.date);
+                order.setOrderType(event.type);
+                entityManager.persist(order);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private static boolean isConstraintViolation(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException
+                    || cause instanceof org.hibernate.exception.ConstraintViolationException
+                    || cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //waits until everything recorded so far has been written, for tests
+    boolean awaitWritten(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pending.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    public boolean isGroupCommit() {
+        return mode.equals("group-commit");
+    }
+
+    public LedgerStatsDto getStats() {
+        return new LedgerStatsDto(mode, queue == null ? 0 : queue.size(), isGroupCommit() ? queueCapacity : 0,
+                written.sum(), batches.sum(), fallbacks.sum(), failed.sum());
+    }
+}
@@ -0,0 +1,82 @@
+package com.library.management.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.library.management.config.ReplicaRouting;
+import com.library.management.dto.CacheStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts cached book, user and principal lookups once the writer's transaction commits, so a read
+ * running alongside the write cannot cache the old row again, and then gives the book or user a new
+ * CatalogVersion for conditional GETs. With read replicas an entry is evicted once more after the
+ * replica lag, in case a replica read cached the old state in between.
+ */
+@Component
+public class LookupCache {
+
+    public static final String BOOKS = "books";
+    public static final String USERS = "users";
+    public static final String PRINCIPALS = "principals";
+
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    ReplicaRouting replicaRouting;
+    @Autowired
+    CatalogVersion catalogVersion;
+
+    public void evictBook(String title) {
+        evict(BOOKS, title, () -> catalogVersion.bumpBook(title));
+    }
+
+    public void evictUser(String username) {
+        evict(USERS, username, () -> catalogVersion.bumpUser(username));
+    }
+
+    //same cache the authentication provider reads through, keyed by username
+    public void evictPrincipal(String username) {
+        evict(PRINCIPALS, username, () -> { });
+    }
+
+    private void evict(String cacheName, String key, Runnable bumpVersion) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || key == null) {
+            return;
+        }
+        //evict before the bump, a reader that sees the new version must not get the old body
+        Runnable evict = () -> {
+            cache.evict(key);
+            bumpVersion.run();
+        };
+        TransactionHooks.afterCommit(() -> {
+            evict.run();
+            if (replicaRouting.isEnabled()) {
+                CompletableFuture.delayedExecutor(replicaRouting.getMaxLag().toMillis(), TimeUnit.MILLISECONDS)
+                        .execute(evict);
+            }
+        });
+    }
+
+    public Map<String, CacheStatsDto> getStats() {
+        Map<String, CacheStatsDto> stats = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+                CacheStats cacheStats = nativeCache.stats();
+                stats.put(cacheName, new CacheStatsDto(nativeCache.estimatedSize(), cacheStats.hitCount(),
+                        cacheStats.missCount(), cacheStats.evictionCount()));
+            }
+        }
+        return stats;
+    }
+}
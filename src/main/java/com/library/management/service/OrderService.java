@@ -1,74 +1,167 @@
 package com.library.management.service;
 
+import com.library.management.dto.OrderDto;
 import com.library.management.entities.Book;
 import com.library.management.entities.Order;
 import com.library.management.entities.User;
 import com.library.management.exceptionhandler.MultipleIssuedException;
 import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.model.CursorPage;
+import com.library.management.model.OrderFilter;
+import com.library.management.model.PageCursor;
 import com.library.management.repository.BookRepository;
 import com.library.management.repository.OrderRepository;
 import com.library.management.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 
 @Service
+@Timed(value = "library.service", histogram = true)
 public class OrderService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
+    //library.loans counts every issue and return attempt, tagged by operation and result
+    private static final String ISSUE = "issue";
+    private static final String RETURN = "return";
+
     @Autowired
     OrderRepository orderRepository;
     @Autowired
     BookRepository bookRepository;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    LookupCache lookupCache;
+    @Autowired
+    LoanLedger loanLedger;
+    @Autowired
+    BookInventory bookInventory;
+    @Autowired
+    HoldService holdService;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    BookEvents bookEvents;
 
+    //the loan is recorded on the user row and a copy taken off a stock stripe, both with conditional
+    //updates, so a user never holds two books and a title never lends more copies than it has
+    @Transactional
     public Order issueBook(int userId, int bookId) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+                .orElseThrow(() -> rejected(ISSUE, "not_found",
+                        new ResourceNotFoundException("User not found with id: " + userId)));
         Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
-
-        // Check if the book is already issued
-        if (book.getIsIssued()) {
-            throw new MultipleIssuedException("The book with id " + bookId + " is already issued.");
-        }
+                .orElseThrow(() -> rejected(ISSUE, "not_found",
+                        new ResourceNotFoundException("Book not found with id: " + bookId)));
 
         //check if user already issued any book
         if (user.getIssuedBook() != null) {
-            throw new MultipleIssuedException("User already issued a book");
+            throw rejected(ISSUE, "user_has_book", new MultipleIssuedException("User already issued a book"));
         }
 
-        Order order = new Order();
-        order.setUser(user);
-        order.setBook(book);
-        order.setOrderDate(LocalDateTime.now());
-        order.setOrderType("Issued");
-        orderRepository.save(order);
-
-        //update book entity
-        book.setIsIssued(true);
-        book.setUser(user);
-        bookRepository.save(book);
-        //update user entity
+        if (userRepository.holdIfFree(userId, book) == 0) {
+            //a parallel checkout by the same user claimed another book first
+            throw rejected(ISSUE, "user_has_book", new MultipleIssuedException("User already issued a book"));
+        }
+        //a copy kept for this patron's hold is taken first, throwing rolls back everything above
+        if (!holdService.claim(userId, bookId) && !bookInventory.takeCopy(bookId)) {
+            throw rejected(ISSUE, "book_taken",
+                    new MultipleIssuedException("All copies of the book with id " + bookId
+                            + " are issued, place a hold to join the waitlist."));
+        }
+
+        //the update cleared the persistence context, user and book are detached copies from here on
         user.setIssuedBook(book);
-        userRepository.save(user);
 
+        Order order = loanLedger.record(user, book, LoanLedger.ISSUED);
+        countLoan(ISSUE, "issued");
+
+        lookupCache.evictBook(book.getTitle());
+        bookEvents.changed(bookId);
+        lookupCache.evictUser(user.getUsername());
         return order;
     }
 
+    @Transactional
     public void returnBook(int userId) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+                .orElseThrow(() -> rejected(RETURN, "not_found",
+                        new ResourceNotFoundException("User not found with id: " + userId)));
         Book book = user.getIssuedBook();
         if (book == null) {
-            throw new ResourceNotFoundException("No book to return");
+            throw rejected(RETURN, "nothing_to_return", new ResourceNotFoundException("No book to return"));
         }
-        book.setIsIssued(false);
-        book.setUser(null);
-        user.setIssuedBook(null);
+        //a parallel return of the same book releases it only once
+        if (userRepository.releaseIfHolding(userId, book) == 0) {
+            throw rejected(RETURN, "nothing_to_return", new ResourceNotFoundException("No book to return"));
+        }
+        holdService.passOn(book.getId());
+        loanLedger.record(user, book, LoanLedger.RETURNED);
+        countLoan(RETURN, "returned");
+
+        lookupCache.evictBook(book.getTitle());
+        bookEvents.changed(book.getId());
+        lookupCache.evictUser(user.getUsername());
+    }
+
+    private void countLoan(String operation, String result) {
+        meterRegistry.counter("library.loans", "operation", operation, "result", result).increment();
+    }
+
+    private <T extends RuntimeException> T rejected(String operation, String result, T exception) {
+        countLoan(operation, result);
+        return exception;
+    }
 
-        userRepository.save(user);
-        bookRepository.save(book);
+    public CursorPage<OrderDto> getHistory(int userId, String cursor, int size) {
+        return getOrders(new OrderFilter(userId, null, null, null, null), cursor, size);
+    }
+
+    //from and to are inclusive days
+    public CursorPage<OrderDto> getOrders(String username, String title, LocalDate from, LocalDate to,
+                                          String cursor, int size) {
+        OrderFilter filter = new OrderFilter(null, username, title,
+                from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.plusDays(1).atStartOfDay());
+        return getOrders(filter, cursor, size);
+    }
+
+    private CursorPage<OrderDto> getOrders(OrderFilter filter, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size should be between 1 and " + MAX_PAGE_SIZE);
+        }
+        LocalDateTime afterDate = null;
+        Integer afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor after = PageCursor.decode(cursor);
+            int separator = after.getAfter().lastIndexOf(',');
+            if (!after.getSort().equals("date") || separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            try {
+                afterDate = LocalDateTime.parse(after.getAfter().substring(0, separator));
+                afterId = Integer.parseInt(after.getAfter().substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        //fetch one extra row to know whether another page exists
+        List<OrderDto> orders = orderRepository.findDtos(filter, afterDate, afterId, size + 1);
+        String nextCursor = null;
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+            OrderDto last = orders.get(size - 1);
+            nextCursor = new PageCursor("date", last.getOrderDate() + "," + last.getOrderId()).encode();
+        }
+        return new CursorPage<>(orders, nextCursor);
     }
 }
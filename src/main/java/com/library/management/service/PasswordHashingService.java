@@ -0,0 +1,194 @@
+package com.library.management.service;
+
+import com.library.management.dto.HashingStatsDto;
+import com.library.management.exceptionhandler.ServiceBusyException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on its own bounded pool so sign-ups and logins cannot take every request thread
+ * and core. When the queue is full the caller is turned away immediately instead of waiting.
+ */
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+
+    @Value("${library.security.bcrypt.strength:10}")
+    private int strength;
+    //0 uses half of the available cores
+    @Value("${library.security.hashing.threads:0}")
+    private int threads;
+    @Value("${library.security.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    //split of totalNanos into time spent in the queue and time spent hashing
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder computeNanos = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        encoder = new BCryptPasswordEncoder(strength);
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    //hashes a batch as one task per pool thread, so a bulk import cannot flood the queue
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int slices = Math.min(threads, rawPasswords.size());
+        List<Future<List<String>>> futures = new ArrayList<>(slices);
+        long submitted = System.nanoTime();
+        try {
+            for (int i = 0; i < slices; i++) {
+                List<? extends CharSequence> slice = rawPasswords.subList(
+                        i * rawPasswords.size() / slices, (i + 1) * rawPasswords.size() / slices);
+                futures.add(executor.submit(() -> slice.stream()
+                        .map(raw -> timed(submitted, () -> encoder.encode(raw))).toList()));
+            }
+        } catch (RejectedExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            rejected.increment();
+            throw new ServiceBusyException("Too many password operations in progress, please retry shortly");
+        }
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        for (Future<List<String>> future : futures) {
+            hashes.addAll(await(future));
+        }
+        return hashes;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        try {
+            return run(() -> encoder.matches(rawPassword, encodedPassword));
+        } catch (ServiceBusyException ex) {
+            //lets the login failure handler answer 503 instead of a bad credentials redirect
+            throw new AuthenticationServiceException(ex.getMessage(), ex);
+        }
+    }
+
+    //true when the hash was made with another work factor, the login then stores a fresh hash
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encodedPassword != null && costOf(encodedPassword) != strength;
+    }
+
+    static int costOf(String encodedPassword) {
+        //$2a$10$... the two digits after the version are the cost
+        if (encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private <T> T run(Supplier<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(submitted, task));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many password operations in progress, please retry shortly");
+        }
+        return await(future);
+    }
+
+    //runs on the pool, one call per password so a batch counts every hash it makes
+    private <T> T timed(long submitted, Supplier<T> task) {
+        long started = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            long finished = System.nanoTime();
+            completed.increment();
+            waitNanos.add(started - submitted);
+            computeNanos.add(finished - started);
+            totalNanos.add(finished - submitted);
+            maxNanos.accumulateAndGet(finished - submitted, Math::max);
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public double getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    public double getComputeNanos() {
+        return computeNanos.sum();
+    }
+
+    public HashingStatsDto getStats() {
+        long done = completed.sum();
+        double average = done == 0 ? 0 : totalNanos.sum() / (double) done / 1_000_000;
+        return new HashingStatsDto(strength, threads, getQueueDepth(), queueCapacity, done, rejected.sum(),
+                average, maxNanos.get() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.management.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects of a write (caches, versions, queues, events) until the
+ * database change is visible to other readers.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    //runs once the current transaction commits, never after a rollback, or at once without a transaction
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.library.management.service;
 
+import com.library.management.config.ReplicaRead;
 import com.library.management.dto.AdminUpdateUserDto;
 import com.library.management.dto.PostUserDto;
 import com.library.management.dto.UserUpdateUserDto;
@@ -7,28 +8,37 @@ import com.library.management.dto.GetUserDto;
 import com.library.management.entities.User;
 import com.library.management.exceptionhandler.DuplicateEntryException;
 import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.model.CursorPage;
 import com.library.management.model.CustomUserDetail;
+import com.library.management.model.PageCursor;
 import com.library.management.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "library.service", histogram = true)
 public class UserService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     UserRepository userRepository;
-
-    private BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    @Autowired
+    LookupCache lookupCache;
+    @Autowired
+    PasswordHashingService passwordHashingService;
+    @Autowired
+    HoldService holdService;
 
     public GetUserDto convertToGetUserDto(User user) {
         GetUserDto getUserDto = new GetUserDto();
@@ -44,21 +54,34 @@ public class UserService {
         return getUserDto;
     }
 
+    @ReplicaRead
+    @Cacheable(cacheNames = LookupCache.USERS, key = "#username")
     public GetUserDto getUserByName(String username) {
-        User user = userRepository.findByUsername(username);
+        GetUserDto user = userRepository.findDtoByUsername(username);
         if (user == null) {
             throw new ResourceNotFoundException("User not found with name: " + username);
         }
-        String issuedBook = (user.getIssuedBook() != null) ? user.getIssuedBook().getTitle() : null;
-
-        return convertToGetUserDto(user);
+        return user;
     }
 
+    @ReplicaRead
     public List<GetUserDto> getAllUsers() {
-        List<User> user = userRepository.findAll();
-        return user.stream()
-                .map(this::convertToGetUserDto)
-                .collect(Collectors.toList());
+        return userRepository.findAllDtos();
+    }
+
+    @ReplicaRead
+    public CursorPage<GetUserDto> getUsers(String cursor, int size, String sort) {
+        PageCursor after = PageCursor.resolve(cursor, size, MAX_PAGE_SIZE, sort);
+        //fetch one extra row to know whether another page exists
+        Limit limit = Limit.of(size + 1);
+        if (after.getSort().equals("id")) {
+            return CursorPage.of(userRepository.findDtosAfterId(after.isFirstPage() ? 0 : after.getAfterId(), limit),
+                    size, "id", user -> String.valueOf(user.getId()));
+        } else if (after.getSort().equals("username")) {
+            return CursorPage.of(userRepository.findDtosAfterUsername(after.isFirstPage() ? "" : after.getAfter(), limit),
+                    size, "username", GetUserDto::getUsername);
+        }
+        throw new IllegalArgumentException("Sort should be either id or username");
     }
 
     public GetUserDto addUser(PostUserDto postUserDto) {
@@ -68,9 +91,10 @@ public class UserService {
         }
         User user = new User();
         user.setUsername(postUserDto.getUsername());
-        user.setPassword(passwordEncoder().encode(postUserDto.getPassword()));
+        user.setPassword(passwordHashingService.encode(postUserDto.getPassword()));
         user.setRole("USER");
         userRepository.save(user);
+        lookupCache.evictUser(user.getUsername());
         return convertToGetUserDto(user);
     }
 
@@ -87,6 +111,7 @@ public class UserService {
             throw new ResourceNotFoundException("Assigned role should be either ADMIN or USER");
         }
         userRepository.save(user);
+        evictRenamedUser(username, user);
 
         getUserDto.setId(user.getId());
         getUserDto.setUsername(user.getUsername());
@@ -107,8 +132,9 @@ public class UserService {
             throw new DuplicateEntryException("Username already exist");
         }
         user.setUsername(userDto.getUsername());
-        user.setPassword(passwordEncoder().encode(userDto.getPassword()));
+        user.setPassword(passwordHashingService.encode(userDto.getPassword()));
         userRepository.save(user);
+        evictRenamedUser(username, user);
 
         getUserDto.setId(user.getId());
         getUserDto.setUsername(user.getUsername());
@@ -121,8 +147,27 @@ public class UserService {
         return getUserDto;
     }
 
+    //a copy still on loan goes to the next patron waiting for it or back on the shelf
+    @Transactional
     public void deleteUserByName(String name) {
+        User user = userRepository.findByUsername(name);
+        if (user != null) {
+            holdService.releaseHoldsOf(user.getId());
+        }
         userRepository.removeByUsername(name);
+        if (user != null && user.getIssuedBook() != null) {
+            holdService.passOn(user.getIssuedBook().getId());
+            lookupCache.evictBook(user.getIssuedBook().getTitle());
+        }
+        lookupCache.evictUser(name);
+        lookupCache.evictPrincipal(name);
+    }
+
+    private void evictRenamedUser(String previousUsername, User user) {
+        lookupCache.evictUser(previousUsername);
+        lookupCache.evictUser(user.getUsername());
+        lookupCache.evictPrincipal(previousUsername);
+        lookupCache.evictPrincipal(user.getUsername());
     }
 
 //    public CustomUserDetail getCurrentUserDetails(){
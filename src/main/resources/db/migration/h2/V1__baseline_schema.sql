@@ -0,0 +1,38 @@
+-- The migrations of db/migration/mysql for the in-memory database of tests and local runs. It is
+-- always new, so there is no data to carry over. H2 has real sequences.
+
+CREATE SEQUENCE user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE book_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE user (
+    id INTEGER NOT NULL,
+    password VARCHAR(255),
+    role VARCHAR(255),
+    username VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_username UNIQUE (username)
+);
+
+CREATE TABLE book (
+    id INTEGER NOT NULL,
+    author VARCHAR(255),
+    is_issued BOOLEAN,
+    title VARCHAR(255),
+    username VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_book_title UNIQUE (title),
+    CONSTRAINT uk_book_username UNIQUE (username),
+    CONSTRAINT fk_book_user FOREIGN KEY (username) REFERENCES user (username)
+);
+
+CREATE TABLE orders (
+    order_id INTEGER NOT NULL,
+    book_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    order_date TIMESTAMP(6),
+    order_type VARCHAR(255),
+    PRIMARY KEY (order_id),
+    CONSTRAINT fk_orders_book FOREIGN KEY (book_id) REFERENCES book (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
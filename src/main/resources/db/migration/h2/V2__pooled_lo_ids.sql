@@ -0,0 +1,5 @@
+-- pooled-lo takes the value returned as the first id of a 100 id block.
+
+ALTER SEQUENCE user_seq INCREMENT BY 100;
+ALTER SEQUENCE book_seq INCREMENT BY 100;
+ALTER SEQUENCE orders_seq INCREMENT BY 100;
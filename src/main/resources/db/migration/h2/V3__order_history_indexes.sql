@@ -0,0 +1,4 @@
+-- Loan history pages walk a user's or a book's orders newest first.
+
+CREATE INDEX idx_orders_user_date ON orders (user_id, order_date);
+CREATE INDEX idx_orders_book_date ON orders (book_id, order_date);
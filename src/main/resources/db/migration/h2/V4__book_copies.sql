@@ -0,0 +1,15 @@
+-- Books have several copies, the holder of a loaned copy is kept on the user row.
+
+ALTER TABLE book ADD COLUMN total_copies INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE user ADD COLUMN issued_book_id INTEGER;
+ALTER TABLE user ADD CONSTRAINT fk_user_issued_book FOREIGN KEY (issued_book_id) REFERENCES book (id);
+CREATE SEQUENCE book_stock_seq START WITH 1 INCREMENT BY 100;
+CREATE TABLE book_stock (
+    id INTEGER NOT NULL,
+    available INTEGER NOT NULL,
+    stripe INTEGER NOT NULL,
+    book_id INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_book_stock_book_stripe UNIQUE (book_id, stripe),
+    CONSTRAINT fk_book_stock_book FOREIGN KEY (book_id) REFERENCES book (id)
+);
@@ -0,0 +1,15 @@
+-- Waitlists for books with no copy on the shelf, in the order the holds were placed.
+
+CREATE SEQUENCE holds_seq START WITH 1 INCREMENT BY 100;
+CREATE TABLE holds (
+    id INTEGER NOT NULL,
+    book_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    placed_at TIMESTAMP(6),
+    ready_until TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_holds_user_book UNIQUE (user_id, book_id),
+    CONSTRAINT fk_holds_book FOREIGN KEY (book_id) REFERENCES book (id),
+    CONSTRAINT fk_holds_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
+CREATE INDEX idx_holds_book_placed ON holds (book_id, placed_at);
@@ -0,0 +1,7 @@
+-- The default accounts of db/migration/mysql. The database is always new here, so the accounts
+-- take the first user_seq block outright.
+
+INSERT INTO user (id, username, password, role) VALUES
+    (1, 'admin', '$2a$10$bb9wgMbCx1/IUjqOOTAC0epDPp07EjhpCY9OrCVqyZc/y1.SC3O5S', 'ADMIN'),
+    (2, 'user1', '$2a$10$0p3IbBPdCLv6XluBFftq3OFJ5/wmOyQSIFkJMdi1gIa8b4Kh9vTjW', 'USER');
+ALTER SEQUENCE user_seq RESTART WITH 101;
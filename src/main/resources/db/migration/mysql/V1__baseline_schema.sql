@@ -0,0 +1,41 @@
+-- The schema ddl-auto=update built before migrations existed. Databases it built already have it and
+-- are baselined at this version (spring.flyway.baseline-on-migrate), every later change is a migration.
+-- Each id sequence is a one-row table holding the next value handed out.
+
+CREATE TABLE `user` (
+    id INT NOT NULL,
+    password VARCHAR(255),
+    role VARCHAR(255),
+    username VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_username UNIQUE (username)
+) ENGINE = InnoDB;
+CREATE TABLE user_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO user_seq VALUES (1);
+
+CREATE TABLE book (
+    id INT NOT NULL,
+    author VARCHAR(255),
+    is_issued BIT,
+    title VARCHAR(255),
+    username VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_book_title UNIQUE (title),
+    CONSTRAINT uk_book_username UNIQUE (username),
+    CONSTRAINT fk_book_user FOREIGN KEY (username) REFERENCES `user` (username)
+) ENGINE = InnoDB;
+CREATE TABLE book_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO book_seq VALUES (1);
+
+CREATE TABLE orders (
+    order_id INT NOT NULL,
+    book_id INT NOT NULL,
+    user_id INT NOT NULL,
+    order_date DATETIME(6),
+    order_type VARCHAR(255),
+    PRIMARY KEY (order_id),
+    CONSTRAINT fk_orders_book FOREIGN KEY (book_id) REFERENCES book (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES `user` (id)
+) ENGINE = InnoDB;
+CREATE TABLE orders_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO orders_seq VALUES (1);
@@ -0,0 +1,7 @@
+-- Book, User and Order take pooled-lo ids. next_val is now read as the first id of the next block,
+-- so it must be past every id already in use. Stop all application instances first; they may still
+-- hold blocks reserved under the old scheme.
+
+UPDATE book_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 1 FROM book));
+UPDATE user_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 1 FROM `user`));
+UPDATE orders_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(order_id), 0) + 1 FROM orders));
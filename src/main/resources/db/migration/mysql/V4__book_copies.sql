@@ -0,0 +1,25 @@
+-- Books have several copies. Every existing book becomes a single copy, its holder moves to the user
+-- row and the copy is put on the shelf unless it is on loan.
+
+ALTER TABLE book ADD COLUMN total_copies INT NOT NULL DEFAULT 1;
+ALTER TABLE `user` ADD COLUMN issued_book_id INT NULL,
+    ADD CONSTRAINT fk_user_issued_book FOREIGN KEY (issued_book_id) REFERENCES book (id);
+CREATE TABLE book_stock (
+    id INT NOT NULL,
+    available INT NOT NULL,
+    stripe INT NOT NULL,
+    book_id INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_book_stock_book_stripe UNIQUE (book_id, stripe),
+    CONSTRAINT fk_book_stock_book FOREIGN KEY (book_id) REFERENCES book (id)
+) ENGINE = InnoDB;
+CREATE TABLE book_stock_seq (next_val BIGINT) ENGINE = InnoDB;
+
+UPDATE `user` u JOIN book b ON b.username = u.username SET u.issued_book_id = b.id;
+INSERT INTO book_stock (id, book_id, stripe, available)
+    SELECT b.id, b.id, 0, CASE WHEN b.username IS NULL THEN 1 ELSE 0 END FROM book b;
+INSERT INTO book_stock_seq VALUES ((SELECT COALESCE(MAX(id), 0) + 1 FROM book_stock));
+
+-- the old holder columns are no longer mapped, clearing them keeps their foreign key from blocking
+-- user deletes; ddl-auto named that key on older databases, so the columns stay
+UPDATE book SET username = NULL, is_issued = NULL;
@@ -0,0 +1,16 @@
+-- Waitlists for books with no copy on the shelf, in the order the holds were placed.
+
+CREATE TABLE holds (
+    id INT NOT NULL,
+    book_id INT NOT NULL,
+    user_id INT NOT NULL,
+    placed_at DATETIME(6),
+    ready_until DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_holds_user_book UNIQUE (user_id, book_id),
+    CONSTRAINT fk_holds_book FOREIGN KEY (book_id) REFERENCES book (id),
+    CONSTRAINT fk_holds_user FOREIGN KEY (user_id) REFERENCES `user` (id)
+) ENGINE = InnoDB;
+CREATE INDEX idx_holds_book_placed ON holds (book_id, placed_at);
+CREATE TABLE holds_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO holds_seq VALUES (1);
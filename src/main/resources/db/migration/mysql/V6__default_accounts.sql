@@ -0,0 +1,13 @@
+-- The default accounts admin/admin and user1/user1, formerly created on every start. The hashes
+-- have BCrypt cost 10, another library.security.bcrypt.strength replaces them on the first login.
+-- Accounts that already exist are left alone; new ones take the start of a fresh user_seq block.
+
+INSERT INTO `user` (id, username, password, role)
+    SELECT s.next_val, 'admin', '$2a$10$bb9wgMbCx1/IUjqOOTAC0epDPp07EjhpCY9OrCVqyZc/y1.SC3O5S', 'ADMIN'
+    FROM user_seq s
+    WHERE NOT EXISTS (SELECT 1 FROM `user` WHERE username = 'admin');
+INSERT INTO `user` (id, username, password, role)
+    SELECT s.next_val + 1, 'user1', '$2a$10$0p3IbBPdCLv6XluBFftq3OFJ5/wmOyQSIFkJMdi1gIa8b4Kh9vTjW', 'USER'
+    FROM user_seq s
+    WHERE NOT EXISTS (SELECT 1 FROM `user` WHERE username = 'user1');
+UPDATE user_seq SET next_val = next_val + 100;
@@ -0,0 +1,98 @@
+package com.library.management.reactive;
+
+import com.library.management.controller.BookController;
+import com.library.management.dto.BookDto;
+import com.library.management.dto.GetUserDto;
+import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.model.CursorPage;
+import com.library.management.model.PageCursor;
+import com.library.management.service.BookService;
+import com.library.management.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The catalog read endpoints of BookController and UserController with the same paths, parameters,
+ * bodies, cursors and error responses, so the load balancer can send them to either kind of node.
+ * Conditional GETs and the availability event stream stay on the servlet nodes, which own the
+ * in-memory versions and the change feed.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Tag(name = "Catalog", description = "Read books and users")
+public class CatalogController {
+
+    @Autowired
+    CatalogRepository catalogRepository;
+
+    @Operation(summary = "Get book by name")
+    @GetMapping("/public/book/{name}")
+    public Mono<BookDto> getBookByName(@PathVariable("name") String name) {
+        return catalogRepository.findBookByTitle(name)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Book not found with name: " + name)));
+    }
+
+    @Operation(summary = "Get a page of books")
+    @GetMapping("/public/book")
+    public Mono<ResponseEntity<List<BookDto>>> getAllBooks(@RequestParam(value = "cursor", required = false) String cursor,
+                                                           @RequestParam(value = "size", defaultValue = "50") int size,
+                                                           @RequestParam(value = "sort", required = false) String sort) {
+        PageCursor after = PageCursor.resolve(cursor, size, BookService.MAX_PAGE_SIZE, sort);
+        //fetch one extra row to know whether another page exists
+        if (after.getSort().equals("id")) {
+            return page(catalogRepository.findBooksAfterId(after.isFirstPage() ? 0 : after.getAfterId(), size + 1),
+                    size, "id", book -> String.valueOf(book.getId()));
+        } else if (after.getSort().equals("title")) {
+            return page(catalogRepository.findBooksAfterTitle(after.isFirstPage() ? "" : after.getAfter(), size + 1),
+                    size, "title", BookDto::getTitle);
+        }
+        throw new IllegalArgumentException("Sort should be either id or title");
+    }
+
+    @Operation(summary = "Get user by username")
+    @GetMapping("/public/user/{username}")
+    public Mono<GetUserDto> getUserByName(@PathVariable("username") String username) {
+        return catalogRepository.findUserByUsername(username)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User not found with name: " + username)));
+    }
+
+    @Operation(summary = "Get a page of users")
+    @GetMapping("/public/user")
+    public Mono<ResponseEntity<List<GetUserDto>>> getAllUsers(@RequestParam(value = "cursor", required = false) String cursor,
+                                                              @RequestParam(value = "size", defaultValue = "50") int size,
+                                                              @RequestParam(value = "sort", required = false) String sort) {
+        PageCursor after = PageCursor.resolve(cursor, size, UserService.MAX_PAGE_SIZE, sort);
+        if (after.getSort().equals("id")) {
+            return page(catalogRepository.findUsersAfterId(after.isFirstPage() ? 0 : after.getAfterId(), size + 1),
+                    size, "id", user -> String.valueOf(user.getId()));
+        } else if (after.getSort().equals("username")) {
+            return page(catalogRepository.findUsersAfterUsername(after.isFirstPage() ? "" : after.getAfter(), size + 1),
+                    size, "username", GetUserDto::getUsername);
+        }
+        throw new IllegalArgumentException("Sort should be either id or username");
+    }
+
+    //the same page and next cursor BookService.getBooks and UserService.getUsers return
+    private static <T> Mono<ResponseEntity<List<T>>> page(Flux<T> rows, int size, String sort, Function<T, String> key) {
+        return rows.collectList().map(items -> {
+            CursorPage<T> page = CursorPage.of(items, size, sort, key);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(BookController.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        });
+    }
+}
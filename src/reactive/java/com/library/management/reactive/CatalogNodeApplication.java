@@ -0,0 +1,29 @@
+package com.library.management.reactive;
+
+import com.library.management.exceptionhandler.GlobalExceptionHandler;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Catalog node: serves the book and user read endpoints on WebFlux and R2DBC from the same database, so
+ * nodes that only take catalog traffic hold neither a servlet thread nor a JDBC connection per request.
+ * Writes, loans and holds stay with LibraryManagementApplication. Reads catalog-node.properties instead
+ * of application.properties. The servlet application scans this package too, the reactive-only
+ * condition keeps these beans out of it.
+ */
+@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Import(GlobalExceptionHandler.class)
+public class CatalogNodeApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(CatalogNodeApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=catalog-node")
+                .run(args);
+    }
+}
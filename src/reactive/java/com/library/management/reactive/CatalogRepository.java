@@ -0,0 +1,99 @@
+package com.library.management.reactive;
+
+import com.library.management.dto.BookDto;
+import com.library.management.dto.GetUserDto;
+import com.library.management.model.CustomUserDetail;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The catalog reads of BookRepository and UserRepository as SQL over R2DBC, returning the same DTOs.
+ * Column names follow the tables Hibernate maps the entities to.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CatalogRepository {
+
+    //the shelf count is summed over the book's stock stripes, as in BookRepository.BOOK_DTO
+    private static final String BOOK_DTO = "select b.id, b.title, b.author, b.total_copies, "
+            + "(select sum(s.available) from book_stock s where s.book_id = b.id) as available from book b ";
+
+    private static final String USER_DTO = "select u.id, u.username, u.role, b.title from user u "
+            + "left join book b on b.id = u.issued_book_id ";
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    public Mono<BookDto> findBookByTitle(String title) {
+        return databaseClient.sql(BOOK_DTO + "where b.title = :title")
+                .bind("title", title)
+                .map(CatalogRepository::toBookDto)
+                .one();
+    }
+
+    public Flux<BookDto> findBooksAfterId(int id, int limit) {
+        return databaseClient.sql(BOOK_DTO + "where b.id > :id order by b.id limit :limit")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(CatalogRepository::toBookDto)
+                .all();
+    }
+
+    public Flux<BookDto> findBooksAfterTitle(String title, int limit) {
+        return databaseClient.sql(BOOK_DTO + "where b.title > :title order by b.title limit :limit")
+                .bind("title", title)
+                .bind("limit", limit)
+                .map(CatalogRepository::toBookDto)
+                .all();
+    }
+
+    public Mono<GetUserDto> findUserByUsername(String username) {
+        return databaseClient.sql(USER_DTO + "where u.username = :username")
+                .bind("username", username)
+                .map(CatalogRepository::toGetUserDto)
+                .one();
+    }
+
+    public Flux<GetUserDto> findUsersAfterId(int id, int limit) {
+        return databaseClient.sql(USER_DTO + "where u.id > :id order by u.id limit :limit")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(CatalogRepository::toGetUserDto)
+                .all();
+    }
+
+    public Flux<GetUserDto> findUsersAfterUsername(String username, int limit) {
+        return databaseClient.sql(USER_DTO + "where u.username > :username order by u.username limit :limit")
+                .bind("username", username)
+                .bind("limit", limit)
+                .map(CatalogRepository::toGetUserDto)
+                .all();
+    }
+
+    //only the columns authentication needs
+    public Mono<CustomUserDetail> findPrincipalByUsername(String username) {
+        return databaseClient.sql("select id, username, password, role from user where username = :username")
+                .bind("username", username)
+                .map(row -> new CustomUserDetail(row.get("id", Integer.class), row.get("username", String.class),
+                        row.get("password", String.class), row.get("role", String.class)))
+                .one();
+    }
+
+    private static BookDto toBookDto(Readable row) {
+        //MySQL sums into a decimal, H2 into a bigint
+        Number available = (Number) row.get("available");
+        return new BookDto(row.get("id", Integer.class), row.get("title", String.class),
+                row.get("author", String.class), row.get("total_copies", Integer.class),
+                available == null ? null : available.longValue());
+    }
+
+    private static GetUserDto toGetUserDto(Readable row) {
+        return new GetUserDto(row.get("id", Integer.class), row.get("username", String.class),
+                row.get("role", String.class), row.get("title", String.class));
+    }
+}
@@ -0,0 +1,56 @@
+package com.library.management.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+
+import static org.springframework.security.config.Customizer.withDefaults;
+
+/**
+ * The access rules of SecurityConfig for the catalog node. Logins are checked against the same user
+ * table and BCrypt hashes; the node keeps its own sessions, so API clients send basic credentials.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CatalogSecurityConfig {
+
+    @Value("${library.security.bcrypt.strength:10}")
+    private int strength;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http.csrf(csrf -> csrf.disable())
+                .authorizeExchange(auth -> auth.pathMatchers("/public/home").permitAll()
+                        .pathMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
+                        .pathMatchers("/admin/**").hasRole("ADMIN")
+                        .pathMatchers("/user/**").hasRole("USER")
+                        .pathMatchers("/public/**").permitAll()
+                        .anyExchange().authenticated())
+                .httpBasic(withDefaults())
+                .formLogin(form -> form.loginPage("/login")
+                        .requiresAuthenticationMatcher(ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, "/dologin")))
+                .build();
+    }
+
+    @Bean
+    public ReactiveUserDetailsService reactiveUserDetailsService(CatalogRepository catalogRepository) {
+        return username -> catalogRepository.findPrincipalByUsername(username).cast(UserDetails.class);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder(strength);
+    }
+}
@@ -0,0 +1,89 @@
+package com.library.management.reactive;
+
+import com.library.management.controller.BookController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(classes = CatalogNodeApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.main.web-application-type=reactive",
+                "spring.config.name=catalog-node",
+                "spring.r2dbc.url=r2dbc:h2:mem:///catalog-node;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER",
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password=",
+                "spring.sql.init.mode=always",
+                "spring.sql.init.schema-locations=classpath:catalog-schema.sql"
+        })
+public class CatalogNodeTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void testGetBookByName() {
+        webTestClient.get().uri("/public/book/Dune").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Dune")
+                .jsonPath("$.totalCopies").isEqualTo(3)
+                .jsonPath("$.availableCopies").isEqualTo(2);
+
+        webTestClient.get().uri("/public/book/Missing").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Book not found with name: Missing");
+    }
+
+    @Test
+    public void testGetAllBooks_pagesWithCursor() {
+        String cursor = webTestClient.get().uri("/public/book?size=2&sort=title").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].title").isEqualTo("Emma")
+                .returnResult().getResponseHeaders().getFirst(BookController.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        webTestClient.get().uri("/public/book?size=2&cursor=" + cursor).exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(BookController.NEXT_CURSOR_HEADER)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].title").isEqualTo("Ubik");
+
+        webTestClient.get().uri("/public/book?size=0").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testGetUserByName() {
+        webTestClient.get().uri("/public/user/user1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("user1")
+                .jsonPath("$.issuedBook").isEqualTo("Dune")
+                .jsonPath("$.password").doesNotExist();
+
+        webTestClient.get().uri("/public/user?sort=username").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].username").isEqualTo("admin");
+    }
+
+    @Test
+    public void testAdminPaths_needAdminRole() {
+        webTestClient.get().uri("/admin/export/books").exchange()
+                .expectStatus().isUnauthorized();
+        webTestClient.get().uri("/admin/export/books").headers(headers -> headers.setBasicAuth("user1", "admin"))
+                .exchange()
+                .expectStatus().isForbidden();
+        //authenticated, the export itself is only served by the servlet nodes
+        webTestClient.get().uri("/admin/export/books").headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,10 @@
+create table book (id int primary key, title varchar(255) not null unique, author varchar(255), total_copies int not null);
+create table book_stock (id int primary key, book_id int not null, stripe int not null, available int not null);
+create table user (id int primary key, username varchar(255) not null unique, password varchar(255),
+                   role varchar(255), issued_book_id int);
+
+insert into book values (1, 'Dune', 'Frank Herbert', 3), (2, 'Emma', 'Jane Austen', 1), (3, 'Ubik', 'Philip K. Dick', 2);
+insert into book_stock values (1, 1, 0, 1), (2, 1, 1, 1), (3, 2, 0, 1), (4, 3, 0, 2);
+-- both passwords are "admin"
+insert into user values (1, 'admin', '$2a$10$d./Sa1Rd8Zq7SsbKChFzgeczIgNgOcVEKMaT0S4l8ZUSCNUbxKZw.', 'ADMIN', null),
+                        (2, 'user1', '$2a$10$d./Sa1Rd8Zq7SsbKChFzgeczIgNgOcVEKMaT0S4l8ZUSCNUbxKZw.', 'USER', 1);
@@ -0,0 +1,103 @@
+package com.library.management.startup;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Launches the packaged application as a fresh JVM, alternately as a plain jar and with the CDS archive
+ * and AOT initializers, and measures from process start to the first 200 from /public/book. Each
+ * launch gets its own port and log file under the output directory; the summary goes to stdout and
+ * startup.csv. Arguments: jar, CDS archive, launches per variant, output directory, then arguments
+ * for the application itself.
+ */
+public class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(args[0]);
+        Path archive = Path.of(args[1]);
+        int runs = Integer.parseInt(args[2]);
+        Path output = Path.of(args[3]);
+        List<String> appArgs = Arrays.asList(args).subList(4, args.length);
+        Files.createDirectories(output);
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("plain", List.of());
+        variants.put("aot-cds", List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true"));
+
+        Map<String, List<Long>> millis = new LinkedHashMap<>();
+        variants.keySet().forEach(name -> millis.put(name, new ArrayList<>()));
+        //alternating keeps a machine that speeds up or slows down over time from favouring one variant
+        for (int run = 0; run < runs; run++) {
+            for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                Path log = output.resolve(variant.getKey() + "-" + run + ".log");
+                long elapsed = launch(jar, variant.getValue(), appArgs, log);
+                millis.get(variant.getKey()).add(elapsed);
+                System.out.printf("%-8s run %d: first response after %d ms%n", variant.getKey(), run, elapsed);
+            }
+        }
+
+        StringBuilder csv = new StringBuilder("variant,min_ms,median_ms,max_ms\n");
+        for (Map.Entry<String, List<Long>> result : millis.entrySet()) {
+            List<Long> sorted = result.getValue().stream().sorted().toList();
+            long median = sorted.get(sorted.size() / 2);
+            System.out.printf("%-8s min %d ms, median %d ms, max %d ms%n", result.getKey(),
+                    sorted.get(0), median, sorted.get(sorted.size() - 1));
+            csv.append(result.getKey()).append(',').append(sorted.get(0)).append(',').append(median)
+                    .append(',').append(sorted.get(sorted.size() - 1)).append('\n');
+        }
+        Files.writeString(output.resolve("startup.csv"), csv);
+    }
+
+    private static long launch(Path jar, List<String> jvmArgs, List<String> appArgs, Path log) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.addAll(appArgs);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/public/book")).build();
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (System.nanoTime() - started < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - started).toMillis();
+                    }
+                } catch (ConnectException ex) {
+                    //not listening yet
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            throw new IllegalStateException("No response within " + TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.library.management;
+
+import com.library.management.repository.UserRepository;
+import com.library.management.service.PasswordHashingService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application on a random port and measures the time until /public/book answers. Fails
+ * when that exceeds startup.budget (default PT2M, generous for slow shared runners; set it tighter
+ * where the machine is known) and logs the slowest startup steps so a regression can be traced.
+ * Startup itself must not hash passwords or create accounts, the migrations seed them. A schema
+ * ddl-auto built before migrations existed is baselined at version 1 and must get every later one.
+ */
+public class StartupTimeTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimeTest.class);
+
+    @Test
+    public void testStartup_firstRequestWithinBudget() throws Exception {
+        Duration budget = Duration.parse(System.getProperty("startup.budget", "PT2M"));
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(10_000);
+        long started = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .properties("server.port=0")
+                .applicationStartup(startup)
+                .run()) {
+            Duration ready = Duration.ofNanos(System.nanoTime() - started);
+            HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                                    + "/public/book")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Duration firstResponse = Duration.ofNanos(System.nanoTime() - started);
+            assertEquals(200, response.statusCode());
+
+            log.info("Ready after {} ms, first response after {} ms", ready.toMillis(), firstResponse.toMillis());
+            //the slowest beans, their time includes the beans they depend on
+            startup.getBufferedTimeline().getEvents().stream()
+                    .filter(event -> event.getStartupStep().getName().equals("spring.beans.instantiate"))
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(10)
+                    .forEach(event -> log.info("{} ms {}", event.getDuration().toMillis(), beanName(event)));
+            assertTrue(firstResponse.compareTo(budget) < 0,
+                    "First response after " + firstResponse.toMillis() + " ms, budget is " + budget.toMillis() + " ms");
+
+            assertEquals(0, context.getBean(PasswordHashingService.class).getStats().getCompleted());
+            assertEquals("6", context.getBean(Flyway.class).info().current().getVersion().getVersion());
+            assertNotNull(context.getBean(UserRepository.class).findByUsername("admin"));
+            assertNotNull(context.getBean(UserRepository.class).findByUsername("user1"));
+        }
+    }
+
+    @Test
+    public void testMigrate_baselinedSchemaGetsEveryLaterMigration() throws Exception {
+        //Arrange
+        //a schema ddl-auto built: version 1 tables with no migration history
+        String url = "jdbc:h2:mem:baselined-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/h2").target("1").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE \"flyway_schema_history\"");
+        }
+
+        //Act
+        Flyway flyway = Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/h2")
+                .baselineOnMigrate(true).baselineVersion("1").load();
+        int applied = flyway.migrate().migrationsExecuted;
+
+        //Assert
+        assertEquals(5, applied);
+        assertEquals("6", flyway.info().current().getVersion().getVersion());
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("SELECT id, total_copies FROM book");
+            statement.execute("SELECT id, available FROM book_stock");
+            statement.execute("SELECT id, ready_until FROM holds");
+            ResultSet indexes = statement.executeQuery(
+                    "SELECT COUNT(*) FROM information_schema.indexes WHERE index_name LIKE 'idx_orders_%'");
+            indexes.next();
+            assertTrue(indexes.getInt(1) > 0);
+            ResultSet admin = statement.executeQuery("SELECT COUNT(*) FROM user WHERE username = 'admin'");
+            admin.next();
+            assertEquals(1, admin.getInt(1));
+        }
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent event) {
+        for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+            if (tag.getKey().equals("beanName")) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
@@ -0,0 +1,133 @@
+package com.library.management.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private RateLimiter rateLimiter;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        rateLimiter = limiter("POST /public/user=5/PT1M", "POST /public/order/{id}=30/PT1M");
+        rateLimiter.nanoClock = () -> now;
+    }
+
+    @Test
+    public void testAcquire_refillsOneTokenPerInterval() {
+        RateLimiter.Rule rule = rateLimiter.ruleFor(request("POST", "/public/user"));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.acquire(rule, "ip:10.0.0.1").isZero());
+        }
+        assertEquals(Duration.ofSeconds(12), rateLimiter.acquire(rule, "ip:10.0.0.1"));
+        //other clients have their own bucket
+        assertTrue(rateLimiter.acquire(rule, "ip:10.0.0.2").isZero());
+
+        now += Duration.ofSeconds(12).toNanos();
+        assertTrue(rateLimiter.acquire(rule, "ip:10.0.0.1").isZero());
+        assertFalse(rateLimiter.acquire(rule, "ip:10.0.0.1").isZero());
+        assertEquals(2, rateLimiter.getRejected());
+    }
+
+    @Test
+    public void testRuleFor_matchesMethodAndPattern() {
+        assertEquals("POST /public/order/{id}",
+                rateLimiter.ruleFor(request("POST", "/public/order/7")).getSpec().split("=")[0]);
+        assertNull(rateLimiter.ruleFor(request("GET", "/public/user")));
+        assertNull(rateLimiter.ruleFor(request("GET", "/public/order/history/all")));
+        assertNull(rateLimiter.ruleFor(request("GET", "/public/order/history")));
+        assertNull(rateLimiter.ruleFor(request("GET", "/public/order/hold")));
+        assertThrows(IllegalArgumentException.class, () -> limiter("POST /public/user=five/PT1M"));
+    }
+
+    @Test
+    public void testAcquire_concurrentClientsGetExactlyCapacity() throws Exception {
+        RateLimiter.Rule rule = rateLimiter.ruleFor(request("POST", "/public/order/1"));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        List<Future<?>> futures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                if (rateLimiter.acquire(rule, "user:1").isZero()) {
+                    granted.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertEquals(30, granted.get());
+        assertEquals(170, rateLimiter.getRejected());
+    }
+
+    @Test
+    public void testFilter_answers429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(limiter("POST /dologin=1/PT1M"), new ObjectMapper());
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/dologin"), first, new MockFilterChain());
+        assertEquals(200, first.getStatus());
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("POST", "/dologin"), second, chain);
+        assertEquals(429, second.getStatus());
+        assertEquals("60", second.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(second.getContentAsString().contains("Too many requests"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void testFilter_orderHistoryReadsNotThrottled() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+        for (int i = 0; i < 40; i++) {
+            MockHttpServletResponse history = new MockHttpServletResponse();
+            filter.doFilter(request("GET", "/public/order/history"), history, new MockFilterChain());
+            assertEquals(200, history.getStatus());
+            MockHttpServletResponse holds = new MockHttpServletResponse();
+            filter.doFilter(request("GET", "/public/order/hold"), holds, new MockFilterChain());
+            assertEquals(200, holds.getStatus());
+        }
+        assertEquals(0, rateLimiter.getRejected());
+
+        for (int i = 0; i < 30; i++) {
+            filter.doFilter(request("POST", "/public/order/7"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        MockHttpServletResponse issue = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/public/order/7"), issue, new MockFilterChain());
+        assertEquals(429, issue.getStatus());
+    }
+
+    //path matchers read the servlet path, as a request dispatched to the root servlet has it
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private static RateLimiter limiter(String... rules) {
+        RateLimiter limiter = new RateLimiter();
+        ReflectionTestUtils.setField(limiter, "ruleSpecs", List.of(rules));
+        ReflectionTestUtils.setField(limiter, "maxKeys", 1000L);
+        limiter.init();
+        return limiter;
+    }
+}
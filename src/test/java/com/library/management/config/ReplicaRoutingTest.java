@@ -0,0 +1,127 @@
+package com.library.management.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BookDto;
+import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.service.BookService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"library.datasource.replica-urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "library.datasource.replica-max-lag=PT1M", "spring.datasource.hikari.maximum-pool-size=7"})
+@AutoConfigureMockMvc
+public class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        replicate();
+    }
+
+    @Test
+    void testReplicaRead_seesOnlyReplicatedRows() throws SQLException {
+        //Arrange
+        bookService.addBook(new BookDto(0, "Not Replicated Yet", "Author", 1, null, null));
+        //Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getBookByName("Not Replicated Yet"));
+        replicate();
+        assertEquals(1, bookService.getBookByName("Not Replicated Yet").getAvailableCopies());
+    }
+
+    @Test
+    void testReplicaRead_insideTransactionReadsPrimary() {
+        //Arrange
+        bookService.addBook(new BookDto(0, "Read In Transaction", "Author", 1, null, null));
+        //Act
+        List<BookDto> books = new TransactionTemplate(transactionManager).execute(status -> bookService.getAllBooks());
+        //Assert
+        assertTrue(books.stream().anyMatch(book -> book.getTitle().equals("Read In Transaction")));
+    }
+
+    @Test
+    void testReplicaRead_writerReadsOwnWrite() throws Exception {
+        //Arrange
+        BookDto book = new BookDto(0, "Own Write", "Author", 1, null, null);
+        mockMvc.perform(post("/admin/book").with(user("librarian").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isCreated());
+        //Act & Assert
+        mockMvc.perform(get("/public/book/Own Write").with(user("reader").roles("USER")))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/public/book/Own Write").with(user("librarian").roles("ADMIN")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testPools_bindHikariSettingsAndReportMetrics() throws SQLException {
+        //Arrange
+        ReplicaRoutingDataSource routing = (ReplicaRoutingDataSource) dataSource;
+        HikariDataSource primary = (HikariDataSource) routing.getPrimary();
+        HikariDataSource replica = (HikariDataSource) routing.getReplicas().get(0);
+        //Act
+        replica.getConnection().close();
+        //Assert
+        assertTrue(replica.isReadOnly());
+        assertEquals(7, primary.getMaximumPoolSize());
+        assertEquals(7, replica.getMaximumPoolSize());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertEquals(7, meterRegistry.get("hikaricp.connections.max").tag("pool", "replica-0").gauge().value());
+    }
+
+    //stands in for replication by copying the primary over the replica
+    private void replicate() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = dataSource.getConnection(); Statement statement = primary.createStatement();
+             ResultSet rows = statement.executeQuery("SCRIPT")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -2,34 +2,48 @@ package com.library.management.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.management.dto.BookDto;
+import com.library.management.dto.BulkImportResultDto;
+import com.library.management.dto.BulkRowErrorDto;
 import com.library.management.exceptionhandler.DuplicateEntryException;
 import com.library.management.exceptionhandler.GlobalExceptionHandler;
 import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.model.CursorPage;
 import com.library.management.repository.UserRepository;
+import com.library.management.service.BookEvents;
 import com.library.management.service.BookService;
-import org.junit.jupiter.api.Disabled;
+import com.library.management.service.BulkImportService;
+import com.library.management.service.CatalogVersion;
+import com.library.management.service.PasswordHashingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
 @WebMvcTest(BookController.class)
+@Import(CatalogVersion.class)
 @WithMockUser(username = "admin", roles = {"ADMIN"})
 public class BookControllerTest {
 
@@ -40,13 +54,19 @@ public class BookControllerTest {
     @MockBean
     private UserRepository userRepository;
     @MockBean
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordEncoder;
+    @MockBean
+    private BulkImportService bulkImportService;
+    @MockBean
+    private BookEvents bookEvents;
     @Autowired
     ObjectMapper objectMapper;
+    @Autowired
+    private CatalogVersion catalogVersion;
 
     @Test
     void testAddBook() throws Exception {
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, false);
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 1, 1, false);
         when(bookService.addBook(any(BookDto.class))).thenReturn(bookDto);
 
         mockMvc.perform(post("/admin/book")
@@ -59,7 +79,7 @@ public class BookControllerTest {
 
     @Test
     void testAddBook_duplicateEntry() throws Exception {
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, false);
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 1, 1, false);
         when(bookService.addBook(any(BookDto.class))).thenThrow(new DuplicateEntryException("Conflict: Book with the given title already exists"));
 
         mockMvc.perform(post("/admin/book")
@@ -70,10 +90,34 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$.message").value("Conflict: Book with the given title already exists"));
     }
 
+    @Test
+    void testImportBooks() throws Exception {
+        BulkImportResultDto result = new BulkImportResultDto(2, 1, 1, 5,
+                List.of(new BulkRowErrorDto(3, "Dune", "Duplicate of an earlier row in this import")));
+        when(bulkImportService.importBooks(any(), anyString())).thenReturn(result);
+
+        mockMvc.perform(post("/admin/book/_bulk")
+                        .contentType(BulkImportService.CSV)
+                        .with(csrf())
+                        .content("title,author\nDune,Herbert\nDune,Herbert\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    void testImportBooks_unsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/admin/book/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .with(csrf())
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
     @Test
     void testGetBookByName() throws Exception {
         String bookName = "Harry Potter";
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, false);
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 1, 1, false);
         when(bookService.getBookByName(bookName)).thenReturn(bookDto);
 
         mockMvc.perform(get("/public/book/" + bookName))
@@ -81,6 +125,55 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$.title").value(bookName));
     }
 
+    @Test
+    void testGetBookByName_notModifiedUntilChanged() throws Exception {
+        BookDto bookDto = new BookDto(1, "Dune", "Herbert", 1, 1, false);
+        when(bookService.getBookByName("Dune")).thenReturn(bookDto);
+        String eTag = mockMvc.perform(get("/public/book/Dune"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/public/book/Dune").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        verify(bookService, times(1)).getBookByName("Dune");
+
+        catalogVersion.bumpBook("Dune");
+        mockMvc.perform(get("/public/book/Dune").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Dune"));
+    }
+
+    @Test
+    void testGetAllBooks_notModifiedUntilCatalogChanges() throws Exception {
+        when(bookService.getBooks(any(), anyInt(), any())).thenReturn(new CursorPage<>(List.of(), null));
+        String eTag = mockMvc.perform(get("/public/book"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        catalogVersion.bumpUser("someone");
+        mockMvc.perform(get("/public/book").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        catalogVersion.bumpBook("Any Book");
+        mockMvc.perform(get("/public/book").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        verify(bookService, times(2)).getBooks(any(), anyInt(), any());
+    }
+
+    @Test
+    void testBookEvents_streamsAvailability() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(bookEvents.subscribe()).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/public/book/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().id("7").name("availability").data("{\"id\":1,\"isIssued\":true}"));
+
+        assertEquals("id:7\nevent:availability\ndata:{\"id\":1,\"isIssued\":true}\n\n",
+                result.getResponse().getContentAsString());
+    }
+
     @Test
     void testGetBookByName_notFound() throws Exception {
         when(bookService.getBookByName(anyString())).thenThrow(new ResourceNotFoundException("Book not found"));
@@ -93,19 +186,50 @@ public class BookControllerTest {
     @Test
     void testGetAllBooks() throws Exception {
         List<BookDto> books = Arrays.asList(
-                new BookDto(1, "Harry Potter 1", "J.K.R", null, false),
-                new BookDto(2, "Harry Potter 2", "J.K.R", null, false));
-        when(bookService.getAllBooks()).thenReturn(books);
+                new BookDto(1, "Harry Potter 1", "J.K.R", 1, 1, false),
+                new BookDto(2, "Harry Potter 2", "J.K.R", 1, 1, false));
+        when(bookService.getBooks(null, 50, null)).thenReturn(new CursorPage<>(books, null));
 
         mockMvc.perform(get("/public/book"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$[0].title").value("Harry Potter 1"));
     }
 
+    @Test
+    void testGetAllBooks_nextPage() throws Exception {
+        List<BookDto> books = List.of(new BookDto(3, "Harry Potter 3", "J.K.R", 1, 1, false));
+        when(bookService.getBooks("abc", 1, "title")).thenReturn(new CursorPage<>(books, "def"));
+
+        mockMvc.perform(get("/public/book").param("cursor", "abc").param("size", "1").param("sort", "title"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "def"))
+                .andExpect(jsonPath("$[0].title").value("Harry Potter 3"));
+    }
+
+    @Test
+    void testGetAllBooks_invalidCursor() throws Exception {
+        when(bookService.getBooks(eq("bad"), anyInt(), any())).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/public/book").param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    void testSearchBooks() throws Exception {
+        List<BookDto> books = List.of(new BookDto(1, "Harry Potter", "J.K.R", 1, 1, false));
+        when(bookService.searchBooks("hary poter", 20)).thenReturn(books);
+
+        mockMvc.perform(get("/public/book/search").param("q", "hary poter"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Harry Potter"));
+    }
+
     @Test
     void testUpdateBook() throws Exception {
         String bookName = "Harry Potter";
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, false);
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 1, 1, false);
         when(bookService.updateBook(eq(bookName), any(BookDto.class))).thenReturn(bookDto);
 
         mockMvc.perform(put("/admin/book/" + bookName)
@@ -119,7 +243,7 @@ public class BookControllerTest {
     @Test
     void testUpdateBook_bookNotFound() throws Exception {
         String bookName = "Harry Potter";
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, false);
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 1, 1, false);
         when(bookService.updateBook(eq(bookName), any(BookDto.class))).thenThrow(new ResourceNotFoundException("Book not found with name: " + bookName));
 
         mockMvc.perform(put("/admin/book/" + bookName)
@@ -131,19 +255,31 @@ public class BookControllerTest {
     }
 
     @Test
-    @Disabled
-    void testUpdateBook_userAlreadyIssuedAnotherBook() throws Exception {
+    void testUpdateBook_fewerCopiesThanOnLoan() throws Exception {
         String bookName = "Harry Potter";
-        String userName = "user1";
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", userName, false);
-        doThrow(new IllegalArgumentException("User '" + userName + "' already issued a book.")).when(bookService).updateBook(bookName, bookDto);
+        String message = "2 copies of 'Harry Potter' are on loan, the book cannot have fewer than that";
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 1, null, null);
+        doThrow(new IllegalArgumentException(message)).when(bookService).updateBook(eq(bookName), any(BookDto.class));
 
         mockMvc.perform(put("/admin/book/"+bookName)
                         .with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(bookDto)))
                 .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.message").value("User '" + userName + "' already issued a book."));
+                .andExpect(jsonPath("$.message").value(message));
+    }
+
+    @Test
+    void testAddBook_noCopies() throws Exception {
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 0, null, null);
+
+        mockMvc.perform(post("/admin/book")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.totalCopies").value("A book needs at least one copy"));
+        verify(bookService, never()).addBook(any(BookDto.class));
     }
 
     @Test
@@ -0,0 +1,74 @@
+package com.library.management.controller;
+
+import com.library.management.repository.UserRepository;
+import com.library.management.service.ExportService;
+import com.library.management.service.PasswordHashingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportController.class)
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class ExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private ExportService exportService;
+    @MockBean
+    private UserRepository userRepository;
+    @MockBean
+    private PasswordHashingService passwordEncoder;
+
+    @Test
+    void testExport_gzipWhenAccepted() throws Exception {
+        when(exportService.contentType("books", "csv")).thenReturn(ExportService.CSV);
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write("id,title\n1,Dune\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exportService).export(eq("books"), eq("csv"), any());
+
+        MvcResult result = mockMvc.perform(get("/admin/export/books").param("format", "csv")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, ExportService.CSV))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("id,title\n1,Dune\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testExport_unknownFormat() throws Exception {
+        when(exportService.contentType("books", "xml"))
+                .thenThrow(new IllegalArgumentException("Format should be either ndjson or csv"));
+
+        mockMvc.perform(get("/admin/export/books").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Format should be either ndjson or csv"));
+        verify(exportService, never()).export(any(), any(), any());
+    }
+}
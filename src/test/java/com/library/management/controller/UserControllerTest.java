@@ -3,13 +3,18 @@ package com.library.management.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.management.dto.GetUserDto;
 import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.model.CursorPage;
 import com.library.management.repository.UserRepository;
+import com.library.management.service.BulkImportService;
+import com.library.management.service.CatalogVersion;
+import com.library.management.service.PasswordHashingService;
 import com.library.management.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -17,12 +22,16 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
+@Import(CatalogVersion.class)
 public class UserControllerTest {
 
     @Autowired
@@ -34,7 +43,11 @@ public class UserControllerTest {
     @MockBean
     private UserRepository userRepository;
     @MockBean
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordEncoder;
+    @MockBean
+    private BulkImportService bulkImportService;
+    @Autowired
+    private CatalogVersion catalogVersion;
 
     @Test
     @WithMockUser(username = "admin", roles = "ADMIN")
@@ -48,6 +61,23 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.username").value(userName));
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void testGetUserByName_notModifiedUntilChanged() throws Exception {
+        when(userService.getUserByName("reader")).thenReturn(new GetUserDto(2, "reader", "USER", null));
+        String eTag = mockMvc.perform(get("/public/user/reader"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/public/user/reader").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        catalogVersion.bumpUser("reader");
+        mockMvc.perform(get("/public/user/reader").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        verify(userService, times(2)).getUserByName("reader");
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = "ADMIN")
     public void testGetUserByName_notFound() throws Exception {
@@ -64,10 +94,11 @@ public class UserControllerTest {
     public void testGetAllUsers() throws Exception {
         List<GetUserDto> userList = Arrays.asList(new GetUserDto(1, "admin", "ADMIN", null),
                 new GetUserDto(2, "user1", "USER", null));
-        when(userService.getAllUsers()).thenReturn(userList);
+        when(userService.getUsers(null, 50, null)).thenReturn(new CursorPage<>(userList, "next"));
 
         mockMvc.perform(get("/public/user"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
                 .andExpect(jsonPath("$[0].username").value("admin"))
                 .andExpect(jsonPath("$[1].username").value("user1"));
     }
@@ -0,0 +1,192 @@
+package com.library.management.load;
+
+import com.library.management.LibraryManagementApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the application three times against a database that answers every statement after a
+ * fixed delay, and drives the same closed-loop load at each: the platform thread defaults, the
+ * platform model with the virtual profile's pool size, and the virtual profile. The middle run
+ * separates what the bigger pool buys from what virtual threads buy. Results are logged; they are
+ * only meaningful on a machine with enough cores that the load generator is not the bottleneck.
+ * Run with mvn -Pjava21,load test on a Java 21 JDK.
+ */
+@Tag("load")
+public class VirtualThreadLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+    private static final int CLIENTS = 400;
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASURE = Duration.ofSeconds(10);
+    private static final long STATEMENT_LATENCY_MILLIS = 20;
+
+    private static final class Result {
+        final long requests;
+        final long errors;
+        final double throughput;
+        final double p50Millis;
+        final double p99Millis;
+
+        Result(long requests, long errors, double throughput, double p50Millis, double p99Millis) {
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %.1f ms, p99 %.1f ms, %d requests, %d errors",
+                    throughput, p50Millis, p99Millis, requests, errors);
+        }
+    }
+
+    @Test
+    void testVirtualThreads_againstPlatformThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+        //Act
+        Result platform = measure(null);
+        Result platformSameDbPool = measure(null, "spring.datasource.hikari.maximum-pool-size=50");
+        Result virtual = measure("virtual");
+        //Assert
+        log.info("platform threads, default pool : {}", platform);
+        log.info("platform threads, pool of 50   : {}", platformSameDbPool);
+        log.info("virtual threads, pool of 50    : {}", virtual);
+        //the numbers depend on the machine, so this only checks that every run carried load
+        assertTrue(platform.requests > 0);
+        assertTrue(platformSameDbPool.requests > 0);
+        assertTrue(virtual.requests > 0);
+    }
+
+    private Result measure(String profile, String... properties) throws Exception {
+        List<String> settings = new ArrayList<>(List.of("server.port=0",
+                "logging.level.root=WARN", "logging.level.org.springframework.security=WARN",
+                "logging.level.com.library.management.load=INFO"));
+        settings.addAll(Arrays.asList(properties));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(LibraryManagementApplication.class,
+                SlowDatabase.class).properties(settings.toArray(String[]::new));
+        if (profile != null) {
+            builder.profiles(profile);
+        }
+        try (ConfigurableApplicationContext context = builder.run()) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/public/book?size=20");
+            run(uri, WARMUP);
+            return run(uri, MEASURE);
+        }
+    }
+
+    //every client sends its next request as soon as the previous one is answered
+    private Result run(URI uri, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        List<long[]> perClient = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            perClient.add(future.get());
+        }
+        clients.shutdown();
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all.length, errors.get(), all.length / (double) duration.toSeconds(),
+                percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    //stands in for a slow database, each statement holds its connection for the extra latency
+    static class SlowDatabase {
+
+        @Bean
+        static BeanPostProcessor slowDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new LatencyDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    static class LatencyDataSource extends DelegatingDataSource {
+
+        LatencyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare")) {
+                            Thread.sleep(STATEMENT_LATENCY_MILLIS);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.library.management.repository;
+
+import com.library.management.dto.BookDto;
+import com.library.management.entities.Book;
+import com.library.management.entities.User;
+import com.library.management.model.CursorPage;
+import com.library.management.service.BookService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            //two copies of every title, reader i has one of them
+            Book book = new Book();
+            book.setTitle("Title " + i);
+            book.setAuthor("Author " + i);
+            book.setTotalCopies(2);
+            bookRepository.save(book);
+            book.getStock().get(0).setAvailable(book.getStock().get(0).getAvailable() - 1);
+
+            User user = new User();
+            user.setUsername("reader" + i);
+            user.setPassword("secret");
+            user.setRole("USER");
+            user.setIssuedBook(book);
+            userRepository.save(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetBooks_singleStatement() {
+        //Act
+        CursorPage<BookDto> page = bookService.getBooks(null, 50, "title");
+        //Assert
+        assertEquals(5, page.getItems().size());
+        assertEquals(2, page.getItems().get(0).getTotalCopies());
+        assertEquals(1, page.getItems().get(0).getAvailableCopies());
+        assertFalse(page.getItems().get(0).getIsIssued());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testGetAllBooks_singleStatement() {
+        //Act
+        List<BookDto> books = bookService.getAllBooks();
+        //Assert
+        assertEquals(5, books.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testGetBookByName_singleStatement() {
+        //Act
+        BookDto book = bookService.getBookByName("Title 3");
+        //Assert
+        assertEquals(1, book.getAvailableCopies());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.management.repository;
+
+import com.library.management.entities.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class IdGenerationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGenerationTest.class);
+    private static final int ROWS = 1000;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testPersistBooks_onePrefetchPerBlock() {
+        //Arrange
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Book book = new Book();
+            book.setTitle("Sequenced " + i);
+            books.add(book);
+        }
+        //Act
+        long start = System.nanoTime();
+        books.forEach(entityManager::persist);
+        entityManager.flush();
+        long elapsed = System.nanoTime() - start;
+        //Assert
+        for (int i = 1; i < ROWS; i++) {
+            assertEquals(books.get(i - 1).getId() + 1, books.get(i).getId());
+        }
+        //one sequence call per block of 100 ids for the books and for their stock rows, each insert is
+        //prepared once and sent in JDBC batches
+        assertEquals(2 * (ROWS / 100 + 1), statistics.getPrepareStatementCount());
+        log.info("Inserted {} books with {} statements in {} ms ({} rows/s)", ROWS,
+                statistics.getPrepareStatementCount(), elapsed / 1_000_000, ROWS * 1_000_000_000L / elapsed);
+    }
+}
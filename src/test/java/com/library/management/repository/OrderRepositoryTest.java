@@ -0,0 +1,142 @@
+package com.library.management.repository;
+
+import com.library.management.dto.OrderDto;
+import com.library.management.entities.Book;
+import com.library.management.entities.Order;
+import com.library.management.entities.User;
+import com.library.management.model.CursorPage;
+import com.library.management.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class OrderRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private int firstUserId;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            User user = new User();
+            user.setUsername("borrower" + i);
+            user.setPassword("secret");
+            user.setRole("USER");
+            entityManager.persist(user);
+            users.add(user);
+
+            Book book = new Book();
+            book.setTitle("History " + i);
+            entityManager.persist(book);
+            books.add(book);
+        }
+        //two orders per day, so the id breaks ties within a day
+        for (int i = 0; i < 10; i++) {
+            Order order = new Order();
+            order.setUser(users.get(i % 2));
+            order.setBook(books.get(i / 5));
+            order.setOrderDate(START.plusDays(i / 2));
+            order.setOrderType(i % 2 == 0 ? "Issued" : "Returned");
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        firstUserId = users.get(0).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetOrders_pagesNewestFirst() {
+        //Act
+        List<OrderDto> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<OrderDto> page = orderService.getOrders(null, null, null, null, cursor, 3);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        //Assert
+        assertEquals(10, seen.size());
+        assertEquals(4, pages);
+        for (int i = 1; i < seen.size(); i++) {
+            OrderDto newer = seen.get(i - 1);
+            OrderDto older = seen.get(i);
+            assertTrue(newer.getOrderDate().isAfter(older.getOrderDate())
+                    || newer.getOrderDate().equals(older.getOrderDate()) && newer.getOrderId() > older.getOrderId());
+        }
+        assertEquals(pages, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testGetOrders_filtersUserBookAndDays() {
+        //Act
+        CursorPage<OrderDto> page = orderService.getOrders("borrower1", "History 1",
+                LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 3), null, 50);
+        //Assert
+        assertEquals(List.of(LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 2)),
+                page.getItems().stream().map(order -> order.getOrderDate().toLocalDate()).toList());
+        assertTrue(page.getItems().stream().allMatch(order -> order.getUsername().equals("borrower1")
+                && order.getTitle().equals("History 1")));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetHistory_onlyCurrentUser() {
+        //Act
+        CursorPage<OrderDto> page = orderService.getHistory(firstUserId, null, 50);
+        //Assert
+        assertEquals(5, page.getItems().size());
+        assertTrue(page.getItems().stream().allMatch(order -> order.getUsername().equals("borrower1")));
+    }
+
+    @Test
+    void testGetOrders_invalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.getOrders(null, null, null, null, "bm90LWEtY3Vyc29y", 10));
+    }
+
+    @Test
+    void testOrderIndexes_exist() {
+        //Act
+        List<?> columns = entityManager.createNativeQuery("select index_name, column_name "
+                        + "from information_schema.index_columns where table_name = 'orders' "
+                        + "and index_name like 'idx_orders_%' order by index_name, ordinal_position")
+                .getResultList();
+        //Assert
+        assertEquals(List.of("idx_orders_book_date:book_id", "idx_orders_book_date:order_date",
+                        "idx_orders_user_date:user_id", "idx_orders_user_date:order_date"),
+                columns.stream().map(row -> ((Object[]) row)[0] + ":" + ((Object[]) row)[1]).toList());
+    }
+}
@@ -0,0 +1,85 @@
+package com.library.management.repository;
+
+import com.library.management.dto.GetUserDto;
+import com.library.management.entities.Book;
+import com.library.management.entities.User;
+import com.library.management.model.CursorPage;
+import com.library.management.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class UserRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            //two copies of every title, reader i has one of them
+            Book book = new Book();
+            book.setTitle("Title " + i);
+            book.setAuthor("Author " + i);
+            book.setTotalCopies(2);
+            bookRepository.save(book);
+            book.getStock().get(0).setAvailable(book.getStock().get(0).getAvailable() - 1);
+
+            User user = new User();
+            user.setUsername("reader" + i);
+            user.setPassword("secret");
+            user.setRole("USER");
+            user.setIssuedBook(book);
+            userRepository.save(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetUsers_singleStatement() {
+        //Act
+        CursorPage<GetUserDto> page = userService.getUsers(null, 3, "username");
+        //Assert
+        assertEquals(3, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testGetUserByName_singleStatement() {
+        //Act
+        GetUserDto user = userService.getUserByName("reader2");
+        //Assert
+        assertEquals("Title 2", user.getIssuedBook());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
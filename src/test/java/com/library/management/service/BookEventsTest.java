@@ -0,0 +1,180 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BookDto;
+import com.library.management.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BookEventsTest {
+
+    //keeps what would have been written to the client, optionally blocking like a stalled connection
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch stalled;
+        volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch stalled) {
+            this.stalled = stalled;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            try {
+                stalled.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder event = new StringBuilder();
+            items.forEach(item -> event.append(item.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final BookEvents bookEvents = new BookEvents();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookEvents, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(bookEvents, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(bookEvents, "bufferSize", 2);
+        ReflectionTestUtils.setField(bookEvents, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(bookEvents, "senderThreads", 2);
+        ReflectionTestUtils.setField(bookEvents, "heartbeat", Duration.ofHours(1));
+        ReflectionTestUtils.setField(bookEvents, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(bookEvents, "sendTimeout", Duration.ofMillis(200));
+        bookEvents.start();
+        //every id below 100 is a book with one copy left, the others were deleted
+        when(bookRepository.findDtosByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id < 100)
+                    .map(id -> new BookDto(id, "Book " + id, "Author", 2, 1, false)).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookEvents.stop();
+    }
+
+    @Test
+    void testChanged_sendsLatestStateAndDeletions() throws Exception {
+        //Arrange
+        RecordingEmitter subscriber = new RecordingEmitter(new CountDownLatch(0));
+        bookEvents.register(subscriber);
+        //Act
+        bookEvents.changed(1);
+        bookEvents.changed(100);
+        //Assert
+        await(() -> subscriber.events.size() >= 2);
+        assertTrue(subscriber.events.stream().anyMatch(event -> event.contains("event:availability")
+                && event.contains("\"id\":1,\"isIssued\":false,\"availableCopies\":1,\"deleted\":false")));
+        assertTrue(subscriber.events.stream().anyMatch(event -> event.contains("\"id\":100,\"isIssued\":null")
+                && event.contains("\"deleted\":true")));
+    }
+
+    @Test
+    void testChanged_slowSubscriberEvicted() throws Exception {
+        //Arrange
+        CountDownLatch stall = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stall);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        bookEvents.register(slow);
+        bookEvents.register(fast);
+        //Act
+        for (int id = 1; id <= 6; id++) {
+            bookEvents.changed(id);
+            int sent = id;
+            await(() -> fast.events.size() >= sent);
+        }
+        //Assert
+        assertEquals(1, bookEvents.getEvicted());
+        assertEquals(1, bookEvents.getSubscriberCount());
+        stall.countDown();
+        await(() -> slow.completed);
+        assertFalse(fast.completed);
+        assertTrue(slow.events.size() <= 3);
+    }
+
+    @Test
+    void testChanged_stalledWritesDoNotPinSenders() throws Exception {
+        //Arrange, one stalled client per sender thread
+        CountDownLatch stall = new CountDownLatch(1);
+        RecordingEmitter stalled1 = new RecordingEmitter(stall);
+        RecordingEmitter stalled2 = new RecordingEmitter(stall);
+        bookEvents.register(stalled1);
+        bookEvents.register(stalled2);
+        bookEvents.changed(1);
+        await(() -> bookEvents.getEvicted() == 2);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        bookEvents.register(fast);
+        //Act
+        bookEvents.changed(2);
+        //Assert, served by the replacement senders while both writes are still blocked
+        await(() -> fast.events.size() == 1);
+        assertEquals(1, bookEvents.getSubscriberCount());
+        assertEquals(4, bookEvents.getSenderThreads());
+        assertFalse(stalled1.completed || stalled2.completed);
+
+        stall.countDown();
+        await(() -> stalled1.completed && stalled2.completed);
+        await(() -> bookEvents.getSenderThreads() == 2);
+        assertFalse(fast.completed);
+    }
+
+    @Test
+    void testChanged_replacementSendersCapped() throws Exception {
+        //Arrange, more stalled clients than senders plus replacements
+        CountDownLatch stall = new CountDownLatch(1);
+        List<RecordingEmitter> stalled = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            RecordingEmitter emitter = new RecordingEmitter(stall);
+            stalled.add(emitter);
+            bookEvents.register(emitter);
+        }
+        //Act
+        bookEvents.changed(1);
+        //Assert, every sender is stuck and the last client waits for one instead of getting a thread
+        await(() -> bookEvents.getEvicted() == 6);
+        Thread.sleep(500);
+        assertEquals(6, bookEvents.getEvicted());
+        assertEquals(1, bookEvents.getSubscriberCount());
+        assertEquals(2 + BookEvents.MAX_REPLACEMENT_SENDERS, bookEvents.getSenderThreads());
+
+        stall.countDown();
+        await(() -> stalled.stream().filter(emitter -> emitter.completed).count() == 6);
+        await(() -> bookEvents.getSenderThreads() == 2);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
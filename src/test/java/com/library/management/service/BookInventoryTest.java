@@ -0,0 +1,82 @@
+package com.library.management.service;
+
+import com.library.management.dto.BookDto;
+import com.library.management.dto.GetUserDto;
+import com.library.management.dto.PostUserDto;
+import com.library.management.entities.Book;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.BookStockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class BookInventoryTest {
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Test
+    void testAddBook_copiesSpreadOverStripes() {
+        //Act
+        BookDto book = bookService.addBook(new BookDto(0, "Striped", "Author", 20, null, null));
+        //Assert
+        assertEquals(20, book.getTotalCopies());
+        assertEquals(20, book.getAvailableCopies());
+        assertEquals(Book.MAX_STRIPES,
+                bookStockRepository.findIdsByBookId(book.getId()).size());
+    }
+
+    @Test
+    void testUpdateBook_growAndShrink() {
+        //Arrange
+        bookService.addBook(new BookDto(0, "Resized", "Author", 1, null, null));
+        //Act
+        BookDto grown = bookService.updateBook("Resized", new BookDto(0, "Resized", "Author", 10, null, null));
+        BookDto shrunk = bookService.updateBook("Resized", new BookDto(0, "Resized", "Author", 4, null, null));
+        //Assert
+        assertEquals(10, grown.getAvailableCopies());
+        assertEquals(4, shrunk.getTotalCopies());
+        assertEquals(4, bookRepository.findDtoByTitle("Resized").getAvailableCopies());
+    }
+
+    @Test
+    void testUpdateBook_cannotDropCopiesOnLoan() {
+        //Arrange
+        BookDto book = bookService.addBook(new BookDto(0, "Lent Out", "Author", 3, null, null));
+        for (int i = 0; i < 2; i++) {
+            GetUserDto user = userService.addUser(new PostUserDto("borrower" + i, "secret"));
+            orderService.issueBook(user.getId(), book.getId());
+        }
+        //Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                bookService.updateBook("Lent Out", new BookDto(0, "Lent Out", "Author", 1, null, null)));
+        //Assert
+        assertEquals("2 copies of 'Lent Out' are on loan, the book cannot have fewer than that", exception.getMessage());
+        BookDto unchanged = bookRepository.findDtoByTitle("Lent Out");
+        assertEquals(3, unchanged.getTotalCopies());
+        assertEquals(1, unchanged.getAvailableCopies());
+    }
+
+    @Test
+    void testDeleteUser_putsCopyBack() {
+        //Arrange
+        BookDto book = bookService.addBook(new BookDto(0, "Orphaned Loan", "Author", 1, null, null));
+        GetUserDto user = userService.addUser(new PostUserDto("leaving", "secret"));
+        orderService.issueBook(user.getId(), book.getId());
+        //Act
+        userService.deleteUserByName("leaving");
+        //Assert
+        assertEquals(1, bookRepository.findDtoByTitle("Orphaned Loan").getAvailableCopies());
+    }
+}
@@ -0,0 +1,66 @@
+package com.library.management.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookSearchIndexTest {
+
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex = new BookSearchIndex();
+        bookSearchIndex.put(1, "Harry Potter and the Philosopher's Stone", "J.K. Rowling");
+        bookSearchIndex.put(2, "The Hobbit", "J.R.R. Tolkien");
+        bookSearchIndex.put(3, "The Lord of the Rings", "J.R.R. Tolkien");
+        bookSearchIndex.put(4, "Les Misérables", "Victor Hugo");
+    }
+
+    @Test
+    void testSearch_exactWords() {
+        assertEquals(List.of(1), bookSearchIndex.search("harry potter", 10));
+    }
+
+    @Test
+    void testSearch_typos() {
+        assertEquals(List.of(1), bookSearchIndex.search("hary poter", 10));
+        assertEquals(List.of(2), bookSearchIndex.search("hobit", 10));
+    }
+
+    @Test
+    void testSearch_prefixAndAccents() {
+        assertEquals(List.of(4), bookSearchIndex.search("miser", 10));
+    }
+
+    @Test
+    void testSearch_authorRanksBothBooks() {
+        List<Integer> result = bookSearchIndex.search("tolkein hobbit", 10);
+        assertEquals(List.of(2, 3), result);
+    }
+
+    @Test
+    void testSearch_limit() {
+        assertEquals(1, bookSearchIndex.search("tolkien", 1).size());
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        bookSearchIndex.put(2, "The Silmarillion", "J.R.R. Tolkien");
+        assertTrue(bookSearchIndex.search("hobbit", 10).isEmpty());
+        assertEquals(List.of(2), bookSearchIndex.search("silmarillion", 10));
+
+        bookSearchIndex.removeByTitle("The Silmarillion");
+        assertTrue(bookSearchIndex.search("silmarillion", 10).isEmpty());
+        assertEquals(3, bookSearchIndex.size());
+    }
+
+    @Test
+    void testEditDistance() {
+        assertEquals(1, BookSearchIndex.editDistance("hobit", "hobbit", 2));
+        assertEquals(3, BookSearchIndex.editDistance("abcdef", "uvwxyz", 2));
+    }
+}
@@ -2,9 +2,10 @@ package com.library.management.service;
 
 import com.library.management.dto.BookDto;
 import com.library.management.entities.Book;
-import com.library.management.entities.User;
 import com.library.management.exceptionhandler.DuplicateEntryException;
 import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.model.CursorPage;
+import com.library.management.model.PageCursor;
 import com.library.management.repository.BookRepository;
 import com.library.management.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,7 +14,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -31,6 +34,16 @@ public class BookServiceTest {
     private BookRepository bookRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private LookupCache lookupCache;
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+    @Mock
+    private BookInventory bookInventory;
+    @Mock
+    private HoldService holdService;
+    @Mock
+    private BookEvents bookEvents;
 
     @BeforeEach
     void setUp() {
@@ -41,10 +54,8 @@ public class BookServiceTest {
     void testGetBookByName_BookFound() {
         //Arrange
         String bookName = "Harry Potter";
-        Book book = new Book(1, bookName, "J.K.R", false, null, null);
-        BookDto bookDto = new BookDto(1, bookName, "J.K.R", null, false);
-        when(bookRepository.findByTitle(bookName)).thenReturn(book);
-        when(bookService.convertToBookDto(book)).thenReturn(bookDto);
+        BookDto bookDto = new BookDto(1, bookName, "J.K.R", 1, 1, false);
+        when(bookRepository.findDtoByTitle(bookName)).thenReturn(bookDto);
         //Act
         BookDto result = bookService.getBookByName(bookName);
         //Assert
@@ -56,7 +67,7 @@ public class BookServiceTest {
     void testGetBookByName_BookNotFound() {
         //Arrange
         String bookName = "Unknown Book";
-        when(bookRepository.findByTitle(bookName)).thenReturn(null);
+        when(bookRepository.findDtoByTitle(bookName)).thenReturn(null);
         //Act
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
             bookService.getBookByName(bookName);
@@ -68,17 +79,11 @@ public class BookServiceTest {
     @Test
     void testGetAllBooks() {
         //Arrange
-        Book book1 = new Book(1, "Harry Potter 1", "J.K.R", false, null, null);
-        Book book2 = new Book(2, "Harry Potter 2", "J.K.R", false, null, null);
-        List<Book> books = Arrays.asList(book1, book2);
-
-        BookDto bookDto1 = new BookDto(1, "Harry Potter 1", "J.K.R", null, false);
-        BookDto bookDto2 = new BookDto(2, "Harry Potter 2", "J.K.R", null, false);
+        BookDto bookDto1 = new BookDto(1, "Harry Potter 1", "J.K.R", 1, 1, false);
+        BookDto bookDto2 = new BookDto(2, "Harry Potter 2", "J.K.R", 1, 1, false);
         List<BookDto> expectedBookDtos = Arrays.asList(bookDto1, bookDto2);
 
-        when(bookService.convertToBookDto(book1)).thenReturn(bookDto1);
-        when(bookService.convertToBookDto(book2)).thenReturn(bookDto2);
-        when(bookRepository.findAll()).thenReturn(books);
+        when(bookRepository.findAllDtos()).thenReturn(expectedBookDtos);
         //Act
         List<BookDto> bookResult = bookService.getAllBooks();
         //Assert
@@ -87,17 +92,101 @@ public class BookServiceTest {
         assertEquals(expectedBookDtos, bookResult);
     }
 
+    @Test
+    void testGetBooks_firstPageById() {
+        //Arrange
+        BookDto book1 = new BookDto(1, "Harry Potter 1", "J.K.R", 1, 1, false);
+        BookDto book2 = new BookDto(2, "Harry Potter 2", "J.K.R", 1, 1, false);
+        BookDto book3 = new BookDto(3, "Harry Potter 3", "J.K.R", 1, 1, false);
+        when(bookRepository.findDtosAfterId(0, Limit.of(3))).thenReturn(Arrays.asList(book1, book2, book3));
+        //Act
+        CursorPage<BookDto> page = bookService.getBooks(null, 2, null);
+        //Assert
+        assertEquals(2, page.getItems().size());
+        assertEquals("Harry Potter 2", page.getItems().get(1).getTitle());
+        PageCursor next = PageCursor.decode(page.getNextCursor());
+        assertEquals("id", next.getSort());
+        assertEquals(2, next.getAfterId());
+    }
+
+    @Test
+    void testGetBooks_lastPageByTitle() {
+        //Arrange
+        BookDto book = new BookDto(7, "Zen", "Suzuki", 1, 1, false);
+        String cursor = new PageCursor("title", "Harry Potter 2").encode();
+        when(bookRepository.findDtosAfterTitle("Harry Potter 2", Limit.of(3))).thenReturn(List.of(book));
+        //Act
+        CursorPage<BookDto> page = bookService.getBooks(cursor, 2, null);
+        //Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetBooks_cursorSortMismatch() {
+        //Arrange
+        String cursor = new PageCursor("title", "Harry Potter 2").encode();
+        //Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookService.getBooks(cursor, 2, "id");
+        });
+        //Assert
+        assertEquals("Cursor was issued for sort 'title'", exception.getMessage());
+    }
+
+    @Test
+    void testGetBooks_invalidSize() {
+        //Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookService.getBooks(null, 0, null);
+        });
+        //Assert
+        assertEquals("Page size should be between 1 and " + BookService.MAX_PAGE_SIZE, exception.getMessage());
+    }
+
+    @Test
+    void testSearchBooks_keepsIndexOrder() {
+        //Arrange
+        BookDto bookDto1 = new BookDto(1, "Harry Potter 1", "J.K.R", 1, 1, false);
+        BookDto bookDto2 = new BookDto(2, "Harry Potter 2", "J.K.R", 1, 0, true);
+        when(bookSearchIndex.search("hary", 20)).thenReturn(List.of(2, 1));
+        when(bookRepository.findDtosByIdIn(List.of(2, 1))).thenReturn(Arrays.asList(bookDto1, bookDto2));
+        //Act
+        List<BookDto> result = bookService.searchBooks("hary", 20);
+        //Assert
+        assertEquals(Arrays.asList(bookDto2, bookDto1), result);
+    }
+
+    @Test
+    void testSearchBooks_noMatch() {
+        //Arrange
+        when(bookSearchIndex.search("zzz", 20)).thenReturn(List.of());
+        //Act
+        List<BookDto> result = bookService.searchBooks("zzz", 20);
+        //Assert
+        assertTrue(result.isEmpty());
+        verify(bookRepository, never()).findDtosByIdIn(any());
+    }
+
+    @Test
+    void testSearchBooks_blankQuery() {
+        //Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookService.searchBooks(" ", 20);
+        });
+        //Assert
+        assertEquals("Search query is mandatory", exception.getMessage());
+    }
+
     @Test
     void testAddBook_success() {
         //Arrange
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, false);
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 1, 1, false);
         Book book = new Book();
         book.setTitle(bookDto.getTitle());
         book.setAuthor(bookDto.getAuthor());
-        book.setUser(null);
-        book.setIsIssued(false);
 
-        BookDto expectedBookDto = new BookDto(1, "Harry Potter", "J.K.R", null, false);
+        BookDto expectedBookDto = new BookDto(1, "Harry Potter", "J.K.R", 1, 1, false);
 
         when(bookRepository.findByTitle(bookDto.getTitle())).thenReturn(null);
         when(bookRepository.save(any(Book.class))).thenReturn(book);
@@ -108,13 +197,14 @@ public class BookServiceTest {
         assertNotNull(result);
         assertEquals(expectedBookDto.getTitle(), result.getTitle());
         assertEquals(expectedBookDto.getAuthor(), result.getAuthor());
+        verify(bookSearchIndex, times(1)).put(anyInt(), eq("Harry Potter"), eq("J.K.R"));
     }
 
     @Test
     void testAddBook_DuplicateEntryException() {
         //Arrange
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, false);
-        Book book = new Book(1, "Harry Potter", "J.K.R", false, null, null);
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 1, 1, false);
+        Book book = new Book(1, "Harry Potter", "J.K.R", 1, new ArrayList<>(), new ArrayList<>());
 
         when(bookRepository.findByTitle(bookDto.getTitle())).thenReturn(book);
         //Act
@@ -133,6 +223,8 @@ public class BookServiceTest {
         bookService.deleteByName(bookName);
         //Assert
         verify(bookRepository, times(1)).removeByTitle(bookName);
+        verify(bookSearchIndex, times(1)).removeByTitle(bookName);
+        verify(lookupCache, times(1)).evictBook(bookName);
     }
 
     @Test
@@ -146,94 +238,64 @@ public class BookServiceTest {
     }
 
     @Test
-    void updateBook_usernameNotProvided_success() {
+    void updateBook_success() {
         //Arrange
         String bookName = "Harry Potter";
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, false);
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, null, null);
 
         Book bookToUpdate = new Book();
         bookToUpdate.setTitle(bookDto.getTitle());
-        bookToUpdate.setAuthor(bookDto.getAuthor());
+        bookToUpdate.setAuthor("J.K");
 
         when(bookRepository.findByTitle(bookName)).thenReturn(bookToUpdate);
         when(bookRepository.save(any(Book.class))).thenReturn(bookToUpdate);
-        doReturn(bookDto).when(bookService).convertToBookDto(any(Book.class));
         //Act
         BookDto result = bookService.updateBook(bookName, bookDto);
         //Assert
-        assertNotNull(result);
         assertEquals(bookDto.getTitle(), result.getTitle());
+        assertEquals(bookDto.getAuthor(), result.getAuthor());
+        verify(bookInventory, never()).resize(any(Book.class), anyInt(), any());
     }
 
     @Test
-    void updateBook_usernameProvided_userNotFound() {
+    void updateBook_copiesProvided_resizesStock() {
         //Arrange
-        String bookName = "Harry Potter";
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", "user1", false);
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", 3, null, null);
+        Book bookToUpdate = new Book(1, "Harry Potter", "J.K.R", 1, new ArrayList<>(), new ArrayList<>());
 
-        Book bookToUpdate = new Book();
-        bookToUpdate.setTitle(bookDto.getTitle());
-        bookToUpdate.setAuthor(bookDto.getAuthor());
-
-        when(bookRepository.findByTitle(bookName)).thenReturn(bookToUpdate);
-        when(userRepository.findByUsername(bookDto.getUser())).thenReturn(null);
+        when(bookRepository.findByTitle("Harry Potter")).thenReturn(bookToUpdate);
+        when(bookRepository.save(any(Book.class))).thenReturn(bookToUpdate);
         //Act
-        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
-            bookService.updateBook(bookName, bookDto);
-        });
+        bookService.updateBook("Harry Potter", bookDto);
         //Assert
-        assertEquals("User not found with name: " + bookDto.getUser(), exception.getMessage());
+        verify(bookInventory).resize(eq(bookToUpdate), eq(3), any());
     }
 
     @Test
-    void updateBook_usernameProvided_userNotIssuedAnotherBook() {
+    void updateBook_bookNotFound() {
         //Arrange
-        String bookName = "Harry Potter";
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", "user1", false);
-
-        Book bookToUpdate = new Book();
-        bookToUpdate.setTitle(bookDto.getTitle());
-        bookToUpdate.setAuthor(bookDto.getAuthor());
-
-        User userExist = new User();
-        userExist.setUsername(bookDto.getUser());
-        userExist.setIssuedBook(null);
-
-        when(bookRepository.findByTitle(bookName)).thenReturn(bookToUpdate);
-        when(userRepository.findByUsername(bookDto.getUser())).thenReturn(userExist);
-        when(bookRepository.save(any(Book.class))).thenReturn(bookToUpdate);
-        doReturn(bookDto).when(bookService).convertToBookDto(any(Book.class));
+        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", null, null, null);
+        when(bookRepository.findByTitle("Harry Potter")).thenReturn(null);
         //Act
-        BookDto result = bookService.updateBook(bookName, bookDto);
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
+            bookService.updateBook("Harry Potter", bookDto);
+        });
         //Assert
-        assertNotNull(result);
-        assertEquals(bookDto.getTitle(), result.getTitle());
-        assertEquals(bookDto.getAuthor(), result.getAuthor());
+        assertEquals("Book not found with name: Harry Potter", exception.getMessage());
     }
 
     @Test
-    void updateBook_usernameProvided_userAlreadyIssuedSameBook() {
+    void updateBook_renameEvictsBothTitles() {
         //Arrange
-        String bookName = "Harry Potter";
-        BookDto bookDto = new BookDto(1, "Harry Potter", "J.K.R", "user1", false);
+        Book bookToUpdate = new Book(1, "Harry Potter", "J.K.R", 1, new ArrayList<>(), new ArrayList<>());
+        BookDto bookDto = new BookDto(1, "Harry Potter 1", "J.K.R", null, null, null);
 
-        Book bookToUpdate = new Book();
-        bookToUpdate.setTitle(bookDto.getTitle());
-        bookToUpdate.setAuthor("J.K");
-
-        User userExist = new User();
-        userExist.setUsername(bookDto.getUser());
-        userExist.setIssuedBook(bookToUpdate);
-
-        when(bookRepository.findByTitle(bookName)).thenReturn(bookToUpdate);
-        when(userRepository.findByUsername(bookDto.getUser())).thenReturn(userExist);
+        when(bookRepository.findByTitle("Harry Potter")).thenReturn(bookToUpdate);
         when(bookRepository.save(any(Book.class))).thenReturn(bookToUpdate);
-        doReturn(bookDto).when(bookService).convertToBookDto(any(Book.class));
         //Act
-        BookDto result = bookService.updateBook(bookName, bookDto);
+        bookService.updateBook("Harry Potter", bookDto);
         //Assert
-        assertNotNull(result);
-        assertEquals(bookDto.getTitle(), result.getTitle());
-        assertEquals(bookDto.getAuthor(), result.getAuthor());
+        verify(lookupCache).evictBook("Harry Potter");
+        verify(lookupCache).evictBook("Harry Potter 1");
     }
 }
@@ -0,0 +1,135 @@
+package com.library.management.service;
+
+import com.library.management.dto.BulkImportResultDto;
+import com.library.management.dto.BulkRowErrorDto;
+import com.library.management.entities.Book;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "library.bulk.batch-size=3")
+public class BulkImportServiceTest {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Test
+    void testImportBooks_csvReportsRejectedRows() throws Exception {
+        //Arrange
+        Book existing = new Book();
+        existing.setTitle("Bulk Existing");
+        bookRepository.save(existing);
+        String csv = """
+                title,author
+                Bulk One,Author One
+                "Bulk Two, Revised","Author ""Two""\"
+                Bulk Existing,Someone
+                ,No Title
+                Bulk One,Again
+                Bulk Three,Author Three
+                """;
+        //Act
+        BulkImportResultDto result = bulkImportService.importBooks(stream(csv), BulkImportService.CSV);
+        //Assert
+        assertEquals(6, result.getReceived());
+        assertEquals(3, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(4L, 5L, 6L), result.getErrors().stream().map(BulkRowErrorDto::getLine).toList());
+        assertEquals("Author \"Two\"", bookRepository.findByTitle("Bulk Two, Revised").getAuthor());
+        assertEquals(1, bookRepository.findByTitle("Bulk Three").getTotalCopies());
+        assertFalse(bookSearchIndex.search("bulk three", 5).isEmpty());
+    }
+
+    @Test
+    void testImportBooks_reimportedTitleGetsNewVersion() throws Exception {
+        //Arrange
+        bulkImportService.importBooks(stream("title,author\nBulk Phoenix,First\n"), BulkImportService.CSV);
+        assertEquals("First", bookService.getBookByName("Bulk Phoenix").getAuthor());
+        bookService.deleteByName("Bulk Phoenix");
+        CatalogVersion.Stamp deleted = catalogVersion.book("Bulk Phoenix");
+        //Act
+        bulkImportService.importBooks(stream("title,author\nBulk Phoenix,Second\n"), BulkImportService.CSV);
+        //Assert
+        assertNotEquals(deleted.getETag(), catalogVersion.book("Bulk Phoenix").getETag());
+        assertEquals(catalogVersion.book("Bulk Phoenix").getETag(), catalogVersion.catalog().getETag());
+        assertEquals("Second", bookService.getBookByName("Bulk Phoenix").getAuthor());
+    }
+
+    @Test
+    void testImportUsers_ndjsonHashesPasswords() throws Exception {
+        //Arrange
+        String ndjson = """
+                {"username": "bulk1", "password": "secret1"}
+                {"username": "bulk2", "password": "secret2"}
+                {"username": "bulk3"}
+                not json
+                {"username": "bulk4", "password": "secret4"}
+                """;
+        //Act
+        BulkImportResultDto result = bulkImportService.importUsers(stream(ndjson), BulkImportService.NDJSON);
+        //Assert
+        assertEquals(5, result.getReceived());
+        assertEquals(3, result.getImported());
+        assertEquals(List.of("Password is mandatory", "Invalid JSON object"),
+                result.getErrors().stream().map(BulkRowErrorDto::getMessage).toList());
+        String hash = userRepository.findByUsername("bulk4").getPassword();
+        assertTrue(passwordHashingService.matches("secret4", hash));
+        assertEquals("USER", userRepository.findByUsername("bulk1").getRole());
+    }
+
+    @Test
+    void testImportBooks_failedBatchRejectsOnlyTheBadRow() throws Exception {
+        //Arrange
+        String tooLong = "Bulk " + "x".repeat(300);
+        String csv = "title,author\nBulk Retry One,A\n" + tooLong + ",B\nBulk Retry Three,C\n";
+        //Act
+        BulkImportResultDto result = bulkImportService.importBooks(stream(csv), BulkImportService.CSV);
+        //Assert
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        BulkRowErrorDto error = result.getErrors().get(0);
+        assertEquals(3L, error.getLine());
+        assertEquals(tooLong, error.getKey());
+        assertFalse(error.getMessage().startsWith("Batch rolled back"));
+        assertNotNull(bookRepository.findByTitle("Bulk Retry One"));
+        assertNotNull(bookRepository.findByTitle("Bulk Retry Three"));
+        assertFalse(bookSearchIndex.search("bulk retry three", 5).isEmpty());
+    }
+
+    @Test
+    void testImportBooks_unsupportedType() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkImportService.importBooks(stream("title\n"), "application/json"));
+    }
+
+    @Test
+    void testSplitCsv() {
+        assertEquals(List.of("a", "b,c", "d\"e", ""), BulkRowReader.splitCsv("a,\"b,c\",\"d\"\"e\","));
+        assertNull(BulkRowReader.splitCsv("\"open"));
+    }
+
+    private InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.management.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogVersionTest {
+
+    private CatalogVersion catalogVersion;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        ReflectionTestUtils.setField(catalogVersion, "maxKeys", 100L);
+        catalogVersion.init();
+    }
+
+    @Test
+    void testBump_lastModifiedMovesByWholeSeconds() {
+        //Arrange
+        long before = catalogVersion.catalog().getLastModified();
+        //Act
+        catalogVersion.bumpBook("Dune");
+        catalogVersion.bumpBook("Dune");
+        //Assert
+        long after = catalogVersion.book("Dune").getLastModified();
+        assertEquals(0, before % 1000);
+        assertEquals(0, after % 1000);
+        //two bumps within one second still leave If-Modified-Since of the first one behind
+        assertTrue(after >= before + 2000);
+    }
+
+    @Test
+    void testBook_withoutOwnVersionFallsBackToNewest() {
+        //Arrange
+        catalogVersion.bumpBook("Dune");
+        catalogVersion.bumpUser("reader");
+        //Act
+        CatalogVersion.Stamp book = catalogVersion.book("Never Changed");
+        CatalogVersion.Stamp user = catalogVersion.user("someone else");
+        //Assert
+        assertEquals(catalogVersion.catalog().getETag(), book.getETag());
+        assertEquals(catalogVersion.user("reader").getETag(), user.getETag());
+    }
+}
@@ -0,0 +1,101 @@
+package com.library.management.service;
+
+import com.library.management.dto.AdminUpdateUserDto;
+import com.library.management.dto.PostUserDto;
+import com.library.management.dto.UserUpdateUserDto;
+import com.library.management.model.CustomUserDetail;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CustomUserDetailServiceTest {
+
+    @Autowired
+    private DaoAuthenticationProvider authenticationProvider;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void testAuthenticate_cachesSlimPrincipal() {
+        //Arrange
+        userService.addUser(new PostUserDto("principal1", "secret"));
+        //Act
+        Authentication authentication = authenticate("principal1", "secret");
+        //Assert
+        CustomUserDetail principal = (CustomUserDetail) authentication.getPrincipal();
+        assertEquals("principal1", principal.getUsername());
+        assertTrue(principal.getId() > 0);
+        assertNotNull(userCache.getUserFromCache("principal1"));
+    }
+
+    @Test
+    void testUpdateUserByUser_evictsPrincipal() {
+        //Arrange
+        userService.addUser(new PostUserDto("principal2", "secret"));
+        authenticate("principal2", "secret");
+        //Act
+        userService.updateUserByUser(new UserUpdateUserDto("principal2", "changed"), "principal2");
+        //Assert
+        assertNull(userCache.getUserFromCache("principal2"));
+        assertThrows(BadCredentialsException.class, () -> authenticate("principal2", "secret"));
+        assertNotNull(authenticate("principal2", "changed"));
+    }
+
+    @Test
+    void testUpdateUserByAdmin_evictsPrincipal() {
+        //Arrange
+        userService.addUser(new PostUserDto("principal3", "secret"));
+        authenticate("principal3", "secret");
+        //Act
+        userService.updateUserByAdmin(new AdminUpdateUserDto("principal3", "ADMIN"), "principal3");
+        //Assert
+        assertNull(userCache.getUserFromCache("principal3"));
+        Authentication authentication = authenticate("principal3", "secret");
+        assertTrue(authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+    }
+
+    @Test
+    void testDeleteUserByName_evictsPrincipal() {
+        //Arrange
+        userService.addUser(new PostUserDto("principal4", "secret"));
+        authenticate("principal4", "secret");
+        //Act
+        userService.deleteUserByName("principal4");
+        //Assert
+        assertNull(userCache.getUserFromCache("principal4"));
+    }
+
+    @Test
+    void testAuthenticate_rehashesOtherCost() {
+        //Arrange
+        userService.addUser(new PostUserDto("principal5", "secret"));
+        int id = userRepository.findByUsername("principal5").getId();
+        userRepository.updatePassword(id, new BCryptPasswordEncoder(4).encode("secret"));
+        //Act
+        authenticate("principal5", "secret");
+        //Assert
+        String stored = userRepository.findByUsername("principal5").getPassword();
+        assertEquals(passwordHashingService.getStrength(), PasswordHashingService.costOf(stored));
+        assertNotNull(authenticate("principal5", "secret"));
+    }
+
+    private Authentication authenticate(String username, String password) {
+        return authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+    }
+}
@@ -0,0 +1,81 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BookDto;
+import com.library.management.dto.GetUserDto;
+import com.library.management.dto.PostUserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testExportBooks_csvQuotesFields() {
+        //Arrange
+        bookService.addBook(new BookDto(0, "Export, With Comma", "Author \"Quoted\"", 2, null, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        //Act
+        long rows = exportService.export("books", "csv", out);
+        //Assert
+        List<String> lines = Arrays.asList(out.toString(StandardCharsets.UTF_8).split("\n"));
+        assertEquals("id,title,author,totalCopies,availableCopies", lines.get(0));
+        assertEquals(rows + 1, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.endsWith(",\"Export, With Comma\",\"Author \"\"Quoted\"\"\",2,2")));
+    }
+
+    @Test
+    void testExportUsersAndOrders_oneObjectPerLine() throws Exception {
+        //Arrange
+        GetUserDto user = userService.addUser(new PostUserDto("export-reader", "secret"));
+        BookDto book = bookService.addBook(new BookDto(0, "Exported Loan", "Author", 1, null, null));
+        orderService.issueBook(user.getId(), book.getId());
+        orderService.returnBook(user.getId());
+        ByteArrayOutputStream users = new ByteArrayOutputStream();
+        ByteArrayOutputStream orders = new ByteArrayOutputStream();
+        //Act
+        exportService.export("users", "ndjson", users);
+        long rows = exportService.export("orders", "ndjson", orders);
+        //Assert
+        assertTrue(users.toString(StandardCharsets.UTF_8).lines()
+                .anyMatch(line -> line.contains("\"username\":\"export-reader\"")));
+        List<String> lines = orders.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(rows, lines.size());
+        long loans = 0;
+        for (String line : lines) {
+            JsonNode order = objectMapper.readTree(line);
+            if (order.get("username").asText().equals("export-reader")) {
+                assertEquals("Exported Loan", order.get("title").asText());
+                loans++;
+            }
+        }
+        assertEquals(2, loans);
+    }
+
+    @Test
+    void testExport_unknownTableRejected() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> exportService.export("holds", "csv", new ByteArrayOutputStream()));
+        assertEquals("Export should be one of books, users or orders", exception.getMessage());
+    }
+}
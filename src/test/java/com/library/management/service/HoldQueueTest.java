@@ -0,0 +1,48 @@
+package com.library.management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HoldQueueTest {
+
+    private final HoldQueue holdQueue = new HoldQueue();
+
+    @Test
+    void testPositions_followServedAndCancelled() {
+        //Arrange
+        for (int userId = 1; userId <= 5; userId++) {
+            holdQueue.join(7, userId);
+        }
+        //Act
+        holdQueue.promote(7, 1, LocalDateTime.now().plusHours(1));
+        holdQueue.leave(7, 3);
+        holdQueue.join(7, 6);
+        //Assert
+        assertEquals(0, holdQueue.get(7, 1).getPosition());
+        assertEquals(1, holdQueue.get(7, 2).getPosition());
+        assertNull(holdQueue.get(7, 3));
+        assertEquals(2, holdQueue.get(7, 4).getPosition());
+        assertEquals(3, holdQueue.get(7, 5).getPosition());
+        assertEquals(4, holdQueue.get(7, 6).getPosition());
+        assertEquals(4, holdQueue.waitingCount(7));
+    }
+
+    @Test
+    void testGetByUser_readyFirst() {
+        //Arrange
+        holdQueue.join(1, 9);
+        holdQueue.join(2, 8);
+        holdQueue.join(2, 9);
+        holdQueue.join(3, 9);
+        //Act
+        holdQueue.promote(3, 9, LocalDateTime.now().plusHours(1));
+        holdQueue.forgetBook(1);
+        //Assert
+        assertEquals(2, holdQueue.getByUser(9).size());
+        assertEquals(3, holdQueue.getByUser(9).get(0).getBookId());
+        assertEquals(2, holdQueue.getByUser(9).get(1).getPosition());
+    }
+}
@@ -0,0 +1,161 @@
+package com.library.management.service;
+
+import com.library.management.dto.BookDto;
+import com.library.management.dto.GetUserDto;
+import com.library.management.dto.HoldDto;
+import com.library.management.dto.PostUserDto;
+import com.library.management.exceptionhandler.DuplicateEntryException;
+import com.library.management.exceptionhandler.MultipleIssuedException;
+import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class HoldServiceTest {
+
+    @Autowired
+    private HoldService holdService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookInventory bookInventory;
+
+    @Test
+    void testReturnBook_handsCopyToHeadOfLine() {
+        //Arrange
+        int bookId = addBook("Waitlisted");
+        int reader = addUser("hold-reader");
+        int first = addUser("hold-first");
+        int second = addUser("hold-second");
+        orderService.issueBook(reader, bookId);
+        assertEquals(1, holdService.placeHold(first, bookId).getPosition());
+        assertEquals(2, holdService.placeHold(second, bookId).getPosition());
+        //Act
+        orderService.returnBook(reader);
+        //Assert
+        HoldDto ready = holdService.getHold(first, bookId);
+        assertEquals(0, ready.getPosition());
+        assertNotNull(ready.getReadyUntil());
+        assertEquals(1, holdService.getHold(second, bookId).getPosition());
+        assertEquals(0, bookRepository.findDtoByTitle("Waitlisted").getAvailableCopies());
+        assertThrows(MultipleIssuedException.class, () -> orderService.issueBook(second, bookId));
+
+        orderService.issueBook(first, bookId);
+        assertThrows(ResourceNotFoundException.class, () -> holdService.getHold(first, bookId));
+        assertEquals(1, holdService.getHold(second, bookId).getPosition());
+    }
+
+    @Test
+    void testPlaceHold_rejectedWhileCopyOnShelf() {
+        //Arrange
+        int bookId = addBook("On Shelf");
+        int reader = addUser("hold-eager");
+        //Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> holdService.placeHold(reader, bookId));
+        //Assert
+        assertEquals("A copy of the book with id " + bookId + " is available, issue it instead", exception.getMessage());
+    }
+
+    @Test
+    void testUpdateBook_addedCopyGoesToHeadOfLine() {
+        //Arrange
+        int bookId = addBook("More Copies");
+        orderService.issueBook(addUser("grow-reader"), bookId);
+        int patron = addUser("grow-patron");
+        holdService.placeHold(patron, bookId);
+        //Act
+        bookService.updateBook("More Copies", new BookDto(0, "More Copies", "Author", 3, null, null));
+        //Assert
+        assertEquals(0, holdService.getHold(patron, bookId).getPosition());
+        assertEquals(1, bookRepository.findDtoByTitle("More Copies").getAvailableCopies());
+        assertEquals(3, bookRepository.findDtoByTitle("More Copies").getTotalCopies());
+    }
+
+    @Test
+    void testPlaceHold_claimsCopyShelvedNextToWaitingHold() {
+        //Arrange
+        int bookId = addBook("Shelved Late");
+        orderService.issueBook(addUser("late-reader"), bookId);
+        int first = addUser("late-first");
+        int second = addUser("late-second");
+        holdService.placeHold(first, bookId);
+        //a copy that reached the shelf while the first patron was waiting
+        bookInventory.putBackCopy(bookId);
+        //Act
+        HoldDto hold = holdService.placeHold(second, bookId);
+        //Assert
+        assertEquals(1, hold.getPosition());
+        assertEquals(0, holdService.getHold(first, bookId).getPosition());
+        assertEquals(0, bookRepository.findDtoByTitle("Shelved Late").getAvailableCopies());
+    }
+
+    @Test
+    void testCancelHold_patronsBehindMoveUp() {
+        //Arrange
+        int bookId = addBook("Long Line");
+        orderService.issueBook(addUser("line-reader"), bookId);
+        int[] patrons = new int[4];
+        for (int i = 0; i < patrons.length; i++) {
+            patrons[i] = addUser("line" + i);
+            holdService.placeHold(patrons[i], bookId);
+        }
+        assertThrows(DuplicateEntryException.class, () -> holdService.placeHold(patrons[0], bookId));
+        //Act
+        holdService.cancelHold(patrons[1], bookId);
+        holdService.cancelHold(patrons[0], bookId);
+        //Assert
+        assertEquals(1, holdService.getHold(patrons[2], bookId).getPosition());
+        assertEquals(2, holdService.getHold(patrons[3], bookId).getPosition());
+        assertEquals(1, holdService.getHolds(patrons[3]).size());
+        assertThrows(ResourceNotFoundException.class, () -> holdService.cancelHold(patrons[0], bookId));
+    }
+
+    @Test
+    void testExpiredPickup_copyGoesBackToShelf() throws Exception {
+        //Arrange
+        int bookId = addBook("Never Collected");
+        int reader = addUser("expiry-reader");
+        int patron = addUser("expiry-patron");
+        orderService.issueBook(reader, bookId);
+        holdService.placeHold(patron, bookId);
+        Duration window = (Duration) ReflectionTestUtils.getField(holdService, "pickupWindow");
+        ReflectionTestUtils.setField(holdService, "pickupWindow", Duration.ofMillis(200));
+        try {
+            //Act
+            orderService.returnBook(reader);
+            //Assert
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (bookRepository.findDtoByTitle("Never Collected").getAvailableCopies() == 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, bookRepository.findDtoByTitle("Never Collected").getAvailableCopies());
+            assertTrue(holdService.getHolds(patron).isEmpty());
+        } finally {
+            ReflectionTestUtils.setField(holdService, "pickupWindow", window);
+        }
+    }
+
+    private int addBook(String title) {
+        return bookService.addBook(new BookDto(0, title, "Author", 1, null, null)).getId();
+    }
+
+    private int addUser(String username) {
+        GetUserDto user = userService.addUser(new PostUserDto(username, "secret"));
+        return user.getId();
+    }
+}
@@ -0,0 +1,123 @@
+package com.library.management.service;
+
+import com.library.management.dto.OrderDto;
+import com.library.management.entities.Book;
+import com.library.management.entities.Order;
+import com.library.management.entities.User;
+import com.library.management.exceptionhandler.MultipleIssuedException;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "library.ledger.mode=group-commit")
+public class LoanLedgerTest {
+
+    @Autowired
+    private LoanLedger loanLedger;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testGroupCommit_recordsIssueAndReturn() throws Exception {
+        //Arrange
+        User user = saveUser("ledger1");
+        Book book = saveBook("Ledger One");
+        //Act
+        Order issued = orderService.issueBook(user.getId(), book.getId());
+        orderService.returnBook(user.getId());
+        //Assert
+        assertEquals(LoanLedger.ISSUED, issued.getOrderType());
+        assertTrue(loanLedger.awaitWritten(5, TimeUnit.SECONDS));
+        List<OrderDto> history = orderService.getHistory(user.getId(), null, 10).getItems();
+        assertEquals(List.of(LoanLedger.RETURNED, LoanLedger.ISSUED),
+                history.stream().map(OrderDto::getOrderType).toList());
+        assertEquals("group-commit", loanLedger.getStats().getMode());
+        assertTrue(loanLedger.getStats().getWritten() >= 2);
+    }
+
+    @Test
+    void testGroupCommit_skipsRolledBackIssue() throws Exception {
+        //Arrange
+        User holder = saveUser("ledger2");
+        User other = saveUser("ledger3");
+        Book book = saveBook("Ledger Two");
+        orderService.issueBook(holder.getId(), book.getId());
+        //Act
+        assertThrows(MultipleIssuedException.class, () -> orderService.issueBook(other.getId(), book.getId()));
+        //Assert
+        assertTrue(loanLedger.awaitWritten(5, TimeUnit.SECONDS));
+        assertTrue(orderService.getHistory(other.getId(), null, 10).getItems().isEmpty());
+        assertEquals(1, orderService.getHistory(holder.getId(), null, 10).getItems().size());
+    }
+
+    @Test
+    void testGroupCommit_dropsOnlyTheEventThatCannotBeWritten() throws Exception {
+        //Arrange
+        User user = saveUser("ledger4");
+        User deleted = new User();
+        deleted.setId(Integer.MAX_VALUE);
+        Book book = saveBook("Ledger Three");
+        long failed = loanLedger.getStats().getFailed();
+        //Act
+        loanLedger.record(user, book, LoanLedger.ISSUED);
+        loanLedger.record(deleted, book, LoanLedger.ISSUED);
+        loanLedger.record(user, book, LoanLedger.RETURNED);
+        //Assert
+        assertTrue(loanLedger.awaitWritten(5, TimeUnit.SECONDS));
+        assertEquals(2, orderService.getHistory(user.getId(), null, 10).getItems().size());
+        assertEquals(failed + 1, loanLedger.getStats().getFailed());
+    }
+
+    @Test
+    void testGroupCommit_writesEventsRecordedAfterStop() throws Exception {
+        //Arrange
+        LoanLedger stopped = new LoanLedger();
+        ReflectionTestUtils.setField(stopped, "entityManager", entityManager);
+        ReflectionTestUtils.setField(stopped, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(stopped, "mode", "group-commit");
+        ReflectionTestUtils.setField(stopped, "queueCapacity", 10);
+        ReflectionTestUtils.setField(stopped, "batchSize", 10);
+        ReflectionTestUtils.setField(stopped, "flushIntervalMillis", 50L);
+        stopped.start();
+        stopped.stop();
+        User user = saveUser("ledger5");
+        Book book = saveBook("Ledger Four");
+        //Act
+        stopped.record(user, book, LoanLedger.ISSUED);
+        //Assert
+        assertTrue(stopped.awaitWritten(0, TimeUnit.SECONDS));
+        assertEquals(1, orderService.getHistory(user.getId(), null, 10).getItems().size());
+    }
+
+    private Book saveBook(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        return bookRepository.save(book);
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setRole("USER");
+        return userRepository.save(user);
+    }
+}
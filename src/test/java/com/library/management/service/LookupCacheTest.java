@@ -0,0 +1,117 @@
+package com.library.management.service;
+
+import com.library.management.dto.BookDto;
+import com.library.management.dto.CacheStatsDto;
+import com.library.management.dto.GetUserDto;
+import com.library.management.dto.PostUserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class LookupCacheTest {
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private LookupCache lookupCache;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void testGetBookByName_cachedUntilUpdated() {
+        //Arrange
+        bookService.addBook(new BookDto(0, "Cached Book", "Author", 1, 1, false));
+        long hits = stats(LookupCache.BOOKS).getHitCount();
+        //Act
+        BookDto first = bookService.getBookByName("Cached Book");
+        BookDto second = bookService.getBookByName("Cached Book");
+        bookService.updateBook("Cached Book", new BookDto(0, "Cached Book", "New Author", 1, 1, false));
+        BookDto third = bookService.getBookByName("Cached Book");
+        //Assert
+        assertSame(first, second);
+        assertEquals(hits + 1, stats(LookupCache.BOOKS).getHitCount());
+        assertEquals("New Author", third.getAuthor());
+        bookService.deleteByName("Cached Book");
+    }
+
+    @Test
+    void testIssueBook_evictsBookAndUser() {
+        //Arrange
+        GetUserDto user = userService.addUser(new PostUserDto("cache-reader", "secret"));
+        BookDto book = bookService.addBook(new BookDto(0, "Cached Loan", "Author", 1, 1, false));
+        assertNull(userService.getUserByName("cache-reader").getIssuedBook());
+        assertFalse(bookService.getBookByName("Cached Loan").getIsIssued());
+        //Act
+        orderService.issueBook(user.getId(), book.getId());
+        //Assert
+        assertEquals("Cached Loan", userService.getUserByName("cache-reader").getIssuedBook());
+        assertTrue(bookService.getBookByName("Cached Loan").getIsIssued());
+
+        orderService.returnBook(user.getId());
+        assertNull(userService.getUserByName("cache-reader").getIssuedBook());
+        assertFalse(bookService.getBookByName("Cached Loan").getIsIssued());
+    }
+
+    @Test
+    void testIssueBook_changesVersions() {
+        //Arrange
+        GetUserDto user = userService.addUser(new PostUserDto("version-reader", "secret"));
+        BookDto book = bookService.addBook(new BookDto(0, "Versioned Loan", "Author", 1, 1, false));
+        CatalogVersion.Stamp catalog = catalogVersion.catalog();
+        CatalogVersion.Stamp bookVersion = catalogVersion.book("Versioned Loan");
+        CatalogVersion.Stamp userVersion = catalogVersion.user("version-reader");
+        //Act
+        orderService.issueBook(user.getId(), book.getId());
+        //Assert
+        assertNotEquals(catalog.getETag(), catalogVersion.catalog().getETag());
+        assertNotEquals(bookVersion.getETag(), catalogVersion.book("Versioned Loan").getETag());
+        assertNotEquals(userVersion.getETag(), catalogVersion.user("version-reader").getETag());
+        orderService.returnBook(user.getId());
+    }
+
+    @Test
+    void testUpdateBook_evictsAfterCommit() {
+        //Arrange
+        bookService.addBook(new BookDto(0, "Racing Book", "Old Author", 1, 1, false));
+        bookService.getBookByName("Racing Book");
+        CatalogVersion.Stamp before = catalogVersion.book("Racing Book");
+        //Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookService.updateBook("Racing Book", new BookDto(0, "Racing Book", "New Author", 1, 1, false));
+            //a reader outside the transaction still sees the committed row and caches it
+            assertEquals("Old Author", CompletableFuture.supplyAsync(
+                    () -> bookService.getBookByName("Racing Book").getAuthor()).join());
+            assertEquals(before.getETag(), catalogVersion.book("Racing Book").getETag());
+        });
+        //Assert
+        assertEquals("New Author", bookService.getBookByName("Racing Book").getAuthor());
+        assertNotEquals(before.getETag(), catalogVersion.book("Racing Book").getETag());
+        bookService.deleteByName("Racing Book");
+    }
+
+    private CacheStatsDto stats(String cacheName) {
+        return lookupCache.getStats().get(cacheName);
+    }
+}
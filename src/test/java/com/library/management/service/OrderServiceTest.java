@@ -0,0 +1,199 @@
+package com.library.management.service;
+
+import com.library.management.dto.BookDto;
+import com.library.management.entities.Book;
+import com.library.management.entities.User;
+import com.library.management.exceptionhandler.MultipleIssuedException;
+import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.OrderRepository;
+import com.library.management.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderServiceTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testIssueBook_oneWinnerAmongReaders() throws Exception {
+        //Arrange
+        Book book = saveBook("Contended");
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            users.add(saveUser("racer" + i));
+        }
+        //Act
+        List<Throwable> failures = race(i -> orderService.issueBook(users.get(i).getId(), book.getId()));
+        //Assert
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertInstanceOf(MultipleIssuedException.class, failure));
+        BookDto issued = bookRepository.findDtoByTitle("Contended");
+        assertTrue(issued.getIsIssued());
+        assertEquals(0, issued.getAvailableCopies());
+        assertEquals(1, orderRepository.findAll().stream()
+                .filter(order -> order.getBook().getId() == book.getId()).count());
+    }
+
+    @Test
+    void testIssueBook_oneBookPerReader() throws Exception {
+        //Arrange
+        User user = saveUser("greedy");
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            books.add(saveBook("Shelf " + i));
+        }
+        //Act
+        List<Throwable> failures = race(i -> orderService.issueBook(user.getId(), books.get(i).getId()));
+        //Assert
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertInstanceOf(MultipleIssuedException.class, failure));
+        assertNotNull(userRepository.findById(user.getId()).orElseThrow().getIssuedBook());
+        assertEquals(THREADS - 1, bookRepository.findAllDtos().stream()
+                .filter(book -> book.getTitle().startsWith("Shelf ")).mapToInt(BookDto::getAvailableCopies).sum());
+    }
+
+    @Test
+    void testIssueBook_everyCopyLentOnce() throws Exception {
+        //Arrange
+        int copies = 5;
+        Book book = saveBook("Bestseller", copies);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            users.add(saveUser("fan" + i));
+        }
+        //Act
+        List<Throwable> failures = race(i -> orderService.issueBook(users.get(i).getId(), book.getId()));
+        //Assert
+        assertEquals(THREADS - copies, failures.size());
+        failures.forEach(failure -> assertInstanceOf(MultipleIssuedException.class, failure));
+        assertEquals(0, bookRepository.findDtoByTitle("Bestseller").getAvailableCopies());
+        assertEquals(copies, userRepository.findUsernamesByIssuedBookId(book.getId()).size());
+
+        race(i -> orderService.returnBook(users.get(i).getId()));
+        BookDto returned = bookRepository.findDtoByTitle("Bestseller");
+        assertEquals(copies, returned.getAvailableCopies());
+        assertFalse(returned.getIsIssued());
+    }
+
+    @Test
+    void testReturnBook_releasedOnce() throws Exception {
+        //Arrange
+        Book book = saveBook("Returned twice");
+        User user = saveUser("returner");
+        orderService.issueBook(user.getId(), book.getId());
+        //Act
+        List<Throwable> failures = race(i -> orderService.returnBook(user.getId()));
+        //Assert
+        failures.forEach(failure -> assertInstanceOf(ResourceNotFoundException.class, failure));
+        BookDto returned = bookRepository.findDtoByTitle("Returned twice");
+        assertFalse(returned.getIsIssued());
+        assertNull(userRepository.findById(user.getId()).orElseThrow().getIssuedBook());
+        assertEquals(1, orderRepository.findAll().stream()
+                .filter(order -> order.getBook().getId() == book.getId() && order.getOrderType().equals("Returned"))
+                .count());
+        assertNotNull(orderService.issueBook(user.getId(), book.getId()));
+    }
+
+    @Test
+    void testIssueAndReturn_countedByResult() {
+        //Arrange
+        Book book = saveBook("Counted");
+        User first = saveUser("counted1");
+        User second = saveUser("counted2");
+        double issued = loans("issue", "issued");
+        double taken = loans("issue", "book_taken");
+        double returned = loans("return", "returned");
+        double nothing = loans("return", "nothing_to_return");
+        long timed = issueCalls();
+        //Act
+        orderService.issueBook(first.getId(), book.getId());
+        assertThrows(MultipleIssuedException.class, () -> orderService.issueBook(second.getId(), book.getId()));
+        orderService.returnBook(first.getId());
+        assertThrows(ResourceNotFoundException.class, () -> orderService.returnBook(first.getId()));
+        //Assert
+        assertEquals(issued + 1, loans("issue", "issued"));
+        assertEquals(taken + 1, loans("issue", "book_taken"));
+        assertEquals(returned + 1, loans("return", "returned"));
+        assertEquals(nothing + 1, loans("return", "nothing_to_return"));
+        assertEquals(timed + 2, issueCalls());
+    }
+
+    //failed calls are timed separately under their exception tag
+    private long issueCalls() {
+        return meterRegistry.get("library.service").tag("class", OrderService.class.getName())
+                .tag("method", "issueBook").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private double loans(String operation, String result) {
+        return meterRegistry.counter("library.loans", "operation", operation, "result", result).count();
+    }
+
+    //starts every call at the same moment and returns the exceptions of the losers
+    private List<Throwable> race(IntConsumer call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                call.accept(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<?> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException ex) {
+                failures.add(ex.getCause());
+            }
+        }
+        executor.shutdown();
+        return failures;
+    }
+
+    private Book saveBook(String title) {
+        return saveBook(title, 1);
+    }
+
+    private Book saveBook(String title, int copies) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setTotalCopies(copies);
+        return bookRepository.save(book);
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setRole("USER");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,95 @@
+package com.library.management.service;
+
+import com.library.management.exceptionhandler.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceTest {
+
+    private PasswordHashingService passwordHashingService;
+
+    @BeforeEach
+    void setUp() {
+        passwordHashingService = new PasswordHashingService();
+        ReflectionTestUtils.setField(passwordHashingService, "strength", 4);
+        ReflectionTestUtils.setField(passwordHashingService, "threads", 1);
+        ReflectionTestUtils.setField(passwordHashingService, "queueCapacity", 1);
+        passwordHashingService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.stop();
+    }
+
+    @Test
+    void testEncode_matchesOnPool() {
+        //Act
+        String hash = passwordHashingService.encode("secret");
+        //Assert
+        assertEquals(4, PasswordHashingService.costOf(hash));
+        assertTrue(passwordHashingService.matches("secret", hash));
+        assertFalse(passwordHashingService.matches("other", hash));
+        assertEquals(3, passwordHashingService.getStats().getCompleted());
+    }
+
+    @Test
+    void testEncodeAll_countsEveryPassword() {
+        //Arrange
+        ReflectionTestUtils.setField(passwordHashingService, "threads", 2);
+        //Act
+        List<String> hashes = passwordHashingService.encodeAll(List.of("a", "b", "c", "d", "e"));
+        //Assert
+        assertEquals(5, hashes.size());
+        assertTrue(passwordHashingService.matches("c", hashes.get(2)));
+        assertEquals(6, passwordHashingService.getStats().getCompleted());
+        assertTrue(passwordHashingService.getComputeNanos() > 0);
+        assertTrue(passwordHashingService.getWaitNanos() > 0);
+    }
+
+    @Test
+    void testEncode_rejectedWhenSaturated() throws InterruptedException {
+        //Arrange
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordHashingService, "executor");
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        running.await();
+        executor.execute(() -> { });
+        //Act and Assert
+        assertThrows(ServiceBusyException.class, () -> passwordHashingService.encode("secret"));
+        AuthenticationServiceException ex = assertThrows(AuthenticationServiceException.class,
+                () -> passwordHashingService.matches("secret", "$2a$04$invalid"));
+        assertInstanceOf(ServiceBusyException.class, ex.getCause());
+        assertEquals(2, passwordHashingService.getStats().getRejected());
+        release.countDown();
+    }
+
+    @Test
+    void testUpgradeEncoding_onlyForOtherCost() {
+        //Arrange
+        String current = new BCryptPasswordEncoder(4).encode("secret");
+        String stronger = new BCryptPasswordEncoder(5).encode("secret");
+        //Act and Assert
+        assertFalse(passwordHashingService.upgradeEncoding(current));
+        assertTrue(passwordHashingService.upgradeEncoding(stronger));
+        assertEquals(-1, PasswordHashingService.costOf("plain"));
+    }
+}
@@ -7,6 +7,8 @@ import com.library.management.dto.UserUpdateUserDto;
 import com.library.management.entities.User;
 import com.library.management.exceptionhandler.DuplicateEntryException;
 import com.library.management.exceptionhandler.ResourceNotFoundException;
+import com.library.management.model.CursorPage;
+import com.library.management.model.PageCursor;
 import com.library.management.repository.BookRepository;
 import com.library.management.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +17,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 
 import java.util.Arrays;
 import java.util.List;
@@ -30,7 +33,11 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private LookupCache lookupCache;
+    @Mock
     private BookRepository bookRepository;
+    @Mock
+    private PasswordHashingService passwordHashingService;
 
     @BeforeEach
     void setUp() {
@@ -41,8 +48,8 @@ public class UserServiceTest {
     void testGetUserByName_userFound() {
         //Arrange
         String userName = "user1";
-        User user = new User(1, userName, null, "user", null, null);
-        when(userRepository.findByUsername(userName)).thenReturn(user);
+        GetUserDto user = new GetUserDto(1, userName, "user", null);
+        when(userRepository.findDtoByUsername(userName)).thenReturn(user);
         //Act
         GetUserDto result = userService.getUserByName(userName);
         //Assert
@@ -54,7 +61,7 @@ public class UserServiceTest {
     void testGetUserByName_userNotFound() {
         //Arrange
         String userName = "user1";
-        when(userRepository.findByUsername(userName)).thenReturn(null);
+        when(userRepository.findDtoByUsername(userName)).thenReturn(null);
         //Act
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
             userService.getUserByName(userName);
@@ -66,16 +73,10 @@ public class UserServiceTest {
     @Test
     void testGetAllUsers() {
         //Arrange
-        User user1 = new User(1, "user1", null, "user", null, null);
-        User user2 = new User(2, "user2", null, "user", null, null);
-        List<User> userList = Arrays.asList(user1, user2);
-
         GetUserDto userDto1 = new GetUserDto(1, "user1", "user", null);
         GetUserDto userDto2 = new GetUserDto(2, "user2", "user", null);
 
-        when(userService.convertToGetUserDto(user1)).thenReturn(userDto1);
-        when(userService.convertToGetUserDto(user2)).thenReturn(userDto2);
-        when(userRepository.findAll()).thenReturn(userList);
+        when(userRepository.findAllDtos()).thenReturn(Arrays.asList(userDto1, userDto2));
         //Act
         List<GetUserDto> result = userService.getAllUsers();
         //Assert
@@ -84,6 +85,32 @@ public class UserServiceTest {
         assertEquals("user1", result.get(0).getUsername());
     }
 
+    @Test
+    void testGetUsers_byUsername() {
+        //Arrange
+        GetUserDto user1 = new GetUserDto(1, "user1", "USER", null);
+        GetUserDto user2 = new GetUserDto(2, "user2", "USER", null);
+        when(userRepository.findDtosAfterUsername("", Limit.of(2))).thenReturn(Arrays.asList(user1, user2));
+        //Act
+        CursorPage<GetUserDto> page = userService.getUsers(null, 1, "username");
+        //Assert
+        assertEquals(1, page.getItems().size());
+        assertEquals("user1", page.getItems().get(0).getUsername());
+        PageCursor next = PageCursor.decode(page.getNextCursor());
+        assertEquals("username", next.getSort());
+        assertEquals("user1", next.getAfter());
+    }
+
+    @Test
+    void testGetUsers_invalidCursor() {
+        //Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            userService.getUsers("not a cursor!", 10, null);
+        });
+        //Assert
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
     @Test
     void testAddUser() {
         //Arrange
@@ -164,6 +191,8 @@ public class UserServiceTest {
         //Assert
         assertNotNull(result);
         assertEquals(userDto.getUsername(), result.getUsername());
+        verify(lookupCache).evictUser(userName);
+        verify(lookupCache).evictUser("updatedName");
     }
 
     @Test
@@ -174,5 +203,7 @@ public class UserServiceTest {
         userService.deleteUserByName(userName);
         //Assert
         verify(userRepository, times(1)).removeByUsername(userName);
+        verify(lookupCache, times(1)).evictUser(userName);
+        verify(lookupCache, times(1)).evictPrincipal(userName);
     }
 }